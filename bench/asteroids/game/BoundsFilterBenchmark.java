@@ -0,0 +1,61 @@
+package asteroids.game;
+
+import java.util.Random;
+
+/**
+ * Compares the batched BoundsFilter with the per-pair scalar rejection in the grid and sweep-and-prune broadphases.
+ * The participants are packed into four dense clusters at the corners of the screen, like the asteroids of a late
+ * level just after they are placed. Run it with the number of participants as the optional first argument.
+ */
+public class BoundsFilterBenchmark
+{
+    /** Number of timed rounds per broadphase */
+    private final static int ROUNDS = 2000;
+
+    /**
+     * Runs the comparison.
+     */
+    public static void main (String[] args)
+    {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Random random = new Random(1);
+
+        CollisionMatrix matrix = new CollisionMatrix();
+        matrix.register(CollisionLayer.ASTEROID, CollisionLayer.ASTEROID);
+        CollisionBodies bodies = new CollisionBodies(matrix);
+        for (int i = 0; i < n; i++)
+        {
+            double cornerX = (i % 2 == 0) ? 40 : Constants.SIZE - 40;
+            double cornerY = (i % 4 < 2) ? 40 : Constants.SIZE - 40;
+            StandIn body = new StandIn(StandIn.ASTEROID, cornerX + 60 * random.nextGaussian(),
+                    cornerY + 60 * random.nextGaussian(), 0, 2 * Math.PI * random.nextDouble());
+            body.move();
+            bodies.add(body, CollisionLayer.indexOf(CollisionLayer.ASTEROID), false);
+        }
+
+        Broadphase[] broadphases = { new GridBroadphase(Constants.SIZE, Constants.GRID_CELL_SIZE, null),
+                new GridBroadphase(Constants.SIZE, Constants.GRID_CELL_SIZE, new BoundsFilter()),
+                new SweepAndPruneBroadphase(null), new SweepAndPruneBroadphase(new BoundsFilter()) };
+        String[] names = { "grid scalar", "grid batched", "sap scalar", "sap batched" };
+
+        CollisionPairs pairs = new CollisionPairs();
+        for (int b = 0; b < broadphases.length; b++)
+        {
+            // Warm up, then time
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                pairs.clear();
+                broadphases[b].findCandidates(bodies, pairs);
+            }
+            long start = System.nanoTime();
+            for (int round = 0; round < ROUNDS; round++)
+            {
+                pairs.clear();
+                broadphases[b].findCandidates(bodies, pairs);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("%-14s %10.1f us/pass %8d candidate pairs%n", names[b], elapsed / 1000.0 / ROUNDS,
+                    pairs.size());
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package asteroids.game;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import asteroids.participants.Asteroid;
+import asteroids.participants.Ship;
+
+/**
+ * Plays seeded, scripted games through the real GameSession and times every move. The scenarios are:
+ *
+ * <ul>
+ * <li>level30: a new game started at level 30, with 33 asteroids and an alien ship, the player doing nothing</li>
+ * <li>bulletStorm: an invulnerable ship spinning and firing every move, which it may when invulnerable</li>
+ * <li>chainExplosion: a swarm of large asteroids converging on an invulnerable ship, which breaks each one that
+ * touches it, spawning fragments and debris that break in turn</li>
+ * <li>botPlay: ten minutes of game time played by a bot that turns towards the nearest asteroid and fires, starting
+ * a new game whenever it loses</li>
+ * </ul>
+ *
+ * For each scenario it reports the median, 99th percentile and longest move in microseconds, and the bytes allocated
+ * per move. With -record it writes these to the baseline file. Otherwise it compares them with the baseline file and
+ * exits with status 1 if any has grown by more than the threshold; if there is no baseline file yet, it writes one.
+ * The longest move is at the mercy of the garbage collector and the JIT, so it is allowed to grow twice as much.
+ *
+ * The arguments are any of -record, -baseline followed by the name of the file (by default
+ * bench/scenarios.baseline), -threshold followed by the allowed growth (by default 0.5, for 50%), -runs followed by
+ * the number of times to play each scenario (by default 5), and -scenarios followed by a comma-separated list. Each
+ * scenario is played once to warm up, then played the given number of times; each measure is the median over those
+ * runs, which keeps one unlucky run from failing the suite.
+ */
+public class ScenarioSuite
+{
+    /** Moves in ten minutes of game time */
+    private final static int TEN_MINUTES = 10 * 60 * 1000 / Constants.FRAME_INTERVAL;
+
+    /** Bytes per move by which allocation may grow beyond the threshold, so that a baseline of 0 is not brittle */
+    private final static double ALLOCATION_SLACK = 64;
+
+    /** The names of the measures, in the order they are stored */
+    private final static String[] MEASURES = { "p50", "p99", "max", "alloc" };
+
+    /**
+     * A scripted game.
+     */
+    private static abstract class Scenario
+    {
+        /** The name of the scenario */
+        final String name;
+
+        /** The seed of the session */
+        final long seed;
+
+        /** The number of moves to make */
+        final int moves;
+
+        /**
+         * Creates a scenario that makes the given number of moves.
+         */
+        Scenario (String name, long seed, int moves)
+        {
+            this.name = name;
+            this.seed = seed;
+            this.moves = moves;
+        }
+
+        /**
+         * Sets the session up before the first move.
+         */
+        abstract void start (GameSession session);
+
+        /**
+         * Gives the input for the next move. Does nothing unless overridden.
+         */
+        void steer (GameSession session)
+        {
+        }
+    }
+
+    /** Every scenario */
+    private final static Scenario[] SCENARIOS = { new Scenario("level30", 30, 3000)
+    {
+        @Override
+        void start (GameSession session)
+        {
+            session.initialScreen(30);
+        }
+    }, new Scenario("bulletStorm", 2, 3000)
+    {
+        @Override
+        void start (GameSession session)
+        {
+            session.initialScreen(5);
+            session.setTurningLeft(true);
+            session.setFiring(true);
+        }
+
+        @Override
+        void steer (GameSession session)
+        {
+            keepInvulnerable(session);
+        }
+    }, new Scenario("chainExplosion", 3, 3000)
+    {
+        @Override
+        void start (GameSession session)
+        {
+            session.initialScreen();
+            double middle = Constants.SIZE / 2;
+            for (int i = 0; i < 60; i++)
+            {
+                double angle = 2 * Math.PI * i / 60;
+                double distance = 150 + 5 * (i % 20);
+                Asteroid asteroid = Asteroid.create(i % 3, 2, middle + distance * Math.cos(angle),
+                        middle + distance * Math.sin(angle), 3, session);
+                asteroid.setDirection(angle + Math.PI);
+                session.addParticipant(asteroid);
+            }
+            session.setTurningRight(true);
+            session.setFiring(true);
+        }
+
+        @Override
+        void steer (GameSession session)
+        {
+            keepInvulnerable(session);
+        }
+    }, new Scenario("botPlay", 4, TEN_MINUTES)
+    {
+        @Override
+        void start (GameSession session)
+        {
+            session.initialScreen();
+        }
+
+        @Override
+        void steer (GameSession session)
+        {
+            playBot(session);
+        }
+    } };
+
+    /**
+     * Runs the suite.
+     */
+    public static void main (String[] args) throws IOException
+    {
+        boolean record = false;
+        String baselineName = "bench/scenarios.baseline";
+        double threshold = 0.5;
+        int runs = 5;
+        List<String> names = null;
+        for (int i = 0; i < args.length; i++)
+        {
+            if (args[i].equals("-record"))
+            {
+                record = true;
+            }
+            else if (args[i].equals("-baseline") && i + 1 < args.length)
+            {
+                baselineName = args[++i];
+            }
+            else if (args[i].equals("-threshold") && i + 1 < args.length)
+            {
+                threshold = Double.parseDouble(args[++i]);
+            }
+            else if (args[i].equals("-runs") && i + 1 < args.length)
+            {
+                runs = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-scenarios") && i + 1 < args.length)
+            {
+                names = Arrays.asList(args[++i].split(","));
+            }
+            else
+            {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        Properties baseline = new Properties();
+        boolean haveBaseline = !record && load(baseline, baselineName);
+        Properties results = new Properties();
+        boolean regressed = false;
+
+        System.out.printf("%-15s %10s %10s %10s %12s%n", "scenario", "p50 us", "p99 us", "max us", "bytes/move");
+        for (Scenario scenario : SCENARIOS)
+        {
+            if (names != null && !names.contains(scenario.name))
+            {
+                continue;
+            }
+            play(scenario);
+            double[][] played = new double[runs][];
+            for (int r = 0; r < runs; r++)
+            {
+                played[r] = play(scenario);
+            }
+            double[] measured = new double[MEASURES.length];
+            for (int m = 0; m < MEASURES.length; m++)
+            {
+                double[] values = new double[runs];
+                for (int r = 0; r < runs; r++)
+                {
+                    values[r] = played[r][m];
+                }
+                Arrays.sort(values);
+                measured[m] = values[runs / 2];
+            }
+            System.out.printf("%-15s %10.1f %10.1f %10.1f %12.1f%n", scenario.name, measured[0], measured[1],
+                    measured[2], measured[3]);
+
+            for (int m = 0; m < MEASURES.length; m++)
+            {
+                String key = scenario.name + "." + MEASURES[m];
+                results.setProperty(key, String.format(Locale.ROOT, "%.1f", measured[m]));
+                String old = baseline.getProperty(key);
+                if (haveBaseline && old != null)
+                {
+                    double allowed = Double.parseDouble(old) * (1 + (m == 2 ? 2 * threshold : threshold));
+                    if (m == 3)
+                    {
+                        allowed += ALLOCATION_SLACK;
+                    }
+                    if (measured[m] > allowed)
+                    {
+                        System.out.printf("  REGRESSION: %s is %.1f, baseline %s, allowed %.1f%n", key, measured[m],
+                                old, allowed);
+                        regressed = true;
+                    }
+                }
+            }
+        }
+
+        if (!haveBaseline)
+        {
+            try (OutputStream out = new FileOutputStream(baselineName))
+            {
+                results.store(out, "Scenario baseline: microseconds per move and bytes allocated per move");
+            }
+            System.out.println("Recorded the baseline in " + baselineName);
+        }
+        if (regressed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads the named baseline file into properties, and reports whether there was one.
+     */
+    private static boolean load (Properties properties, String name) throws IOException
+    {
+        try (InputStream in = new FileInputStream(name))
+        {
+            properties.load(in);
+            return true;
+        }
+        catch (java.io.FileNotFoundException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Plays the scenario in a new session and returns the median, 99th percentile and longest move in microseconds,
+     * and the bytes allocated per move. Only the moves themselves are timed, not the steering.
+     */
+    private static double[] play (Scenario scenario)
+    {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        boolean counting = threads instanceof com.sun.management.ThreadMXBean;
+
+        GameSession session = new GameSession(1, scenario.seed);
+        scenario.start(session);
+        long[] times = new long[scenario.moves];
+        long allocated = 0;
+        for (int i = 0; i < scenario.moves; i++)
+        {
+            scenario.steer(session);
+            long before = counting ? ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread) : 0;
+            long start = System.nanoTime();
+            session.step();
+            times[i] = System.nanoTime() - start;
+            if (counting)
+            {
+                allocated += ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(thread) - before;
+            }
+        }
+        session.close();
+
+        Arrays.sort(times);
+        int n = times.length;
+        return new double[] { times[n / 2] / 1000.0, times[Math.min(n - 1, (int) (0.99 * n))] / 1000.0,
+                times[n - 1] / 1000.0, counting ? (double) allocated / n : Double.NaN };
+    }
+
+    /**
+     * Makes the ship invulnerable if there is one and it is not already. Picking up a supply can take it away.
+     */
+    private static void keepInvulnerable (GameSession session)
+    {
+        Ship ship = session.getShip();
+        if (ship != null && !ship.isInvulnerability())
+        {
+            ship.setInvulnerability();
+        }
+    }
+
+    /**
+     * Turns the ship towards the nearest asteroid and fires when it is pointing roughly at it. Starts a new game when
+     * the last life is lost.
+     */
+    private static void playBot (GameSession session)
+    {
+        Ship ship = session.getShip();
+        if (ship == null)
+        {
+            if (session.getLives() <= 0)
+            {
+                session.initialScreen();
+            }
+            return;
+        }
+
+        Participant nearest = null;
+        double best = Double.MAX_VALUE;
+        for (Iterator<Participant> i = session.getParticipants(); i.hasNext();)
+        {
+            Participant p = i.next();
+            if (p instanceof Asteroid && !p.isExpired())
+            {
+                double dx = p.getX() - ship.getX(), dy = p.getY() - ship.getY();
+                double distance = dx * dx + dy * dy;
+                if (distance < best)
+                {
+                    best = distance;
+                    nearest = p;
+                }
+            }
+        }
+        if (nearest == null)
+        {
+            session.setTurningLeft(false);
+            session.setTurningRight(false);
+            session.setFiring(false);
+            return;
+        }
+
+        double bearing = Math.atan2(nearest.getY() - ship.getY(), nearest.getX() - ship.getX());
+        double turn = Math.IEEEremainder(bearing - ship.getRotation(), 2 * Math.PI);
+        session.setTurningRight(turn > 0.1);
+        session.setTurningLeft(turn < -0.1);
+        session.setFiring(Math.abs(turn) < 0.3);
+    }
+}
@@ -0,0 +1,102 @@
+package asteroids.game;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs many GameSessions at once, each on its own thread, to show that they neither interfere nor contend. Every
+ * session starts a new game with the same seed and plays it with the ship turning and firing, so every session must
+ * end exactly where a single session played alone on the main thread ends. The total number of moves per second is
+ * reported for 1, 2, 4 and so on up to the given number of threads, and the program exits with status 1 if any
+ * session ends with a different score, number of lives, level or game time from the lone one. If the parallel move or
+ * collision passes are turned on, every session runs them on one shared pool. Run it with the largest number of
+ * threads and the number of moves per session as the optional arguments.
+ */
+public class SessionStress
+{
+    /** The seed of every session */
+    private final static long SEED = 1;
+
+    /**
+     * Runs the sessions.
+     */
+    public static void main (String[] args) throws InterruptedException
+    {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        ForkJoinPool pool = ParticipantState.createPool();
+
+        // Warm up
+        run(maxThreads, steps / 4, pool);
+
+        String expected = play(steps, pool);
+        System.out.println("alone: " + expected);
+
+        boolean same = true;
+        for (int threads = 1; threads <= maxThreads; threads = (threads == maxThreads) ? threads + 1
+                : Math.min(2 * threads, maxThreads))
+        {
+            long start = System.nanoTime();
+            String[] outcomes = run(threads, steps, pool);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%3d sessions %12.0f moves/s%n", threads, threads * steps / seconds);
+            for (int i = 0; i < threads; i++)
+            {
+                if (!outcomes[i].equals(expected))
+                {
+                    System.out.printf("    session %d of %d differs: %s%n", i, threads, outcomes[i]);
+                    same = false;
+                }
+            }
+        }
+
+        if (pool != null)
+        {
+            pool.shutdown();
+        }
+        if (!same)
+        {
+            System.out.println("FAILED: concurrent sessions did not match the lone session");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Plays the given number of sessions for the given number of moves, one per thread, with their parallel passes on
+     * the pool, and returns how each of them ended.
+     */
+    private static String[] run (int threads, final int steps, final ForkJoinPool pool) throws InterruptedException
+    {
+        final String[] outcomes = new String[threads];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++)
+        {
+            final int index = i;
+            workers[i] = new Thread( () -> outcomes[index] = play(steps, pool));
+            workers[i].start();
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+        return outcomes;
+    }
+
+    /**
+     * Plays a session with SEED for the given number of moves on the calling thread, with its parallel passes on the
+     * pool, and returns its score, lives, level and game time.
+     */
+    private static String play (int steps, ForkJoinPool pool)
+    {
+        GameSession session = new GameSession(1, SEED, pool);
+        session.initialScreen();
+        session.setTurningLeft(true);
+        session.setFiring(true);
+        for (int s = 0; s < steps; s++)
+        {
+            session.step();
+        }
+        session.close();
+        return "score " + session.getScore() + ", lives " + session.getLives() + ", level " + session.getLevel()
+               + ", time " + session.getTime();
+    }
+}
@@ -0,0 +1,301 @@
+package asteroids.game;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times the hot paths of the simulation: Participant.overlaps, Participant.move, Participant.normalize,
+ * ParticipantState.moveParticipants and ParticipantState.checkForCollisions. Each is run for every combination of a
+ * participant count, a mix of participant types and a layout, and is reported as nanoseconds and bytes allocated per
+ * operation. The operation is a pair for overlaps, a participant for move and normalize, and a whole move of every
+ * participant for moveParticipants and checkForCollisions.
+ *
+ * The participants are StandIns with the outlines, collision layers and masks of asteroids, bullets, debris and
+ * stars, which ignore their collisions, so that the population stays the same however long a case runs. In the
+ * spread layout they are scattered over the screen and drift; in the overlapping layout they all sit still in the
+ * middle of the screen, which is the worst case for collision detection; in the disjoint layout they sit still on a
+ * grid with no two touching, which is the best. Cases that would take too long or do not fit are skipped.
+ *
+ * The arguments are any of -benchmarks, -counts, -mixes and -layouts, each followed by a comma-separated list, and
+ * -millis followed by how long to time each case. Allocation is measured on the benchmark's own thread, so work done
+ * by the threads of the parallel move or collision detection is not counted.
+ */
+public class SimulationBenchmark
+{
+    /** Distance between neighbors in the disjoint layout */
+    private final static int SPACING = 24;
+
+    /** Largest population in the overlapping layout, where every asteroid meets every bullet */
+    private final static int MAX_OVERLAPPING = 2000;
+
+    /** Keeps results alive so that the JIT cannot drop the work that produced them */
+    private static volatile double sink;
+
+    /**
+     * Runs the benchmarks named by the arguments.
+     */
+    public static void main (String[] args)
+    {
+        List<String> benchmarks = Arrays.asList("overlaps", "move", "normalize", "moveParticipants",
+                "checkForCollisions");
+        List<String> counts = Arrays.asList("10", "100", "1000", "10000", "100000");
+        List<String> mixes = Arrays.asList("mixed", "asteroids", "bullets", "debris", "stars");
+        List<String> layouts = Arrays.asList("spread", "overlapping", "disjoint");
+        long millis = 1000;
+        for (int i = 0; i + 1 < args.length; i += 2)
+        {
+            List<String> values = Arrays.asList(args[i + 1].split(","));
+            switch (args[i])
+            {
+            case "-benchmarks":
+                benchmarks = values;
+                break;
+            case "-counts":
+                counts = values;
+                break;
+            case "-mixes":
+                mixes = values;
+                break;
+            case "-layouts":
+                layouts = values;
+                break;
+            case "-millis":
+                millis = Long.parseLong(args[i + 1]);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        System.out.printf("%-19s %7s %-10s %-12s %14s %12s %s%n", "benchmark", "count", "mix", "layout", "ns/op",
+                "bytes/op", "op");
+        for (String benchmark : benchmarks)
+        {
+            for (String count : counts)
+            {
+                for (String mix : mixes)
+                {
+                    for (String layout : layouts)
+                    {
+                        run(benchmark, Integer.parseInt(count), mix, layout, millis);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs one case, or does nothing if the case is skipped.
+     */
+    private static void run (String benchmark, int n, String mix, String layout, long millis)
+    {
+        // Moving and normalizing do not depend on where the participants are, and normalizing not on what they are
+        boolean placed = benchmark.equals("overlaps") || benchmark.endsWith("Participants")
+                         || benchmark.endsWith("Collisions");
+        if ((!placed && !layout.equals("spread")) || (benchmark.equals("normalize") && !mix.equals("mixed")))
+        {
+            return;
+        }
+        StandIn[] bodies = populate(n, mix, layout, new Random(n));
+        if (bodies == null)
+        {
+            return;
+        }
+
+        Runnable op;
+        ParticipantState state = null;
+        int perRun = n;
+        String unit = "participant";
+        switch (benchmark)
+        {
+        case "overlaps":
+            for (StandIn b : bodies)
+            {
+                b.move();
+            }
+            op = ( () -> overlapAll(bodies));
+            unit = "pair";
+            break;
+        case "move":
+            op = ( () -> moveAll(bodies));
+            break;
+        case "normalize":
+            double[] angles = new double[n];
+            Random random = new Random(n);
+            for (int i = 0; i < n; i++)
+            {
+                angles[i] = 8 * Math.PI * (random.nextDouble() - 0.5);
+            }
+            op = ( () -> normalizeAll(angles));
+            break;
+        case "moveParticipants":
+        case "checkForCollisions":
+            state = new ParticipantState();
+            for (StandIn b : bodies)
+            {
+                state.addParticipant(b);
+            }
+
+            // The first move completes the additions and the second places the participants
+            state.moveParticipants();
+            state.moveParticipants();
+            op = benchmark.equals("moveParticipants") ? state::moveParticipants : state::checkForCollisions;
+            perRun = 1;
+            unit = "move";
+            break;
+        default:
+            throw new IllegalArgumentException("unknown benchmark " + benchmark);
+        }
+
+        double[] result = measure(op, perRun, millis);
+        if (state != null)
+        {
+            state.close();
+        }
+        System.out.printf("%-19s %7d %-10s %-12s %14.1f %12.1f %s%n", benchmark, n, mix, placed ? layout : "-",
+                result[0], result[1], unit);
+    }
+
+    /**
+     * Runs op until a tenth of millis has passed to warm it up, and then until millis has passed. Returns the
+     * nanoseconds and the bytes allocated per operation, where each run of op is perRun operations. The bytes are
+     * NaN if the JVM cannot measure allocation.
+     */
+    private static double[] measure (Runnable op, int perRun, long millis)
+    {
+        long warmup = System.nanoTime() + millis * 100000;
+        while (System.nanoTime() < warmup)
+        {
+            op.run();
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocated(threads);
+        long start = System.nanoTime();
+        long deadline = start + millis * 1000000;
+        long runs = 0;
+        long now;
+        do
+        {
+            op.run();
+            runs++;
+            now = System.nanoTime();
+        }
+        while (now < deadline);
+        long allocatedAfter = allocated(threads);
+
+        double ops = (double) runs * perRun;
+        double bytes = (allocatedBefore < 0) ? Double.NaN : (allocatedAfter - allocatedBefore) / ops;
+        return new double[] { (now - start) / ops, bytes };
+    }
+
+    /**
+     * Returns the number of bytes that the current thread has allocated, or -1 if the JVM cannot tell.
+     */
+    private static long allocated (ThreadMXBean threads)
+    {
+        if (threads instanceof com.sun.management.ThreadMXBean)
+        {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Returns n bodies of the mix in the layout, or null if the case is skipped.
+     */
+    private static StandIn[] populate (int n, String mix, String layout, Random random)
+    {
+        int across = Constants.SIZE / SPACING;
+        if ((layout.equals("overlapping") && n > MAX_OVERLAPPING) || (layout.equals("disjoint") && n > across * across))
+        {
+            return null;
+        }
+        StandIn[] bodies = new StandIn[n];
+        for (int i = 0; i < n; i++)
+        {
+            int type = typeOf(mix, i);
+            double direction = 2 * Math.PI * random.nextDouble();
+            switch (layout)
+            {
+            case "spread":
+                bodies[i] = new StandIn(type, Constants.SIZE * random.nextDouble(),
+                        Constants.SIZE * random.nextDouble(), 3 * random.nextDouble(), direction);
+                break;
+            case "overlapping":
+                bodies[i] = new StandIn(type, Constants.SIZE / 2, Constants.SIZE / 2, 0, direction);
+                break;
+            case "disjoint":
+                bodies[i] = new StandIn(type, SPACING * (i % across + 0.5), SPACING * (i / across + 0.5), 0,
+                        direction);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown layout " + layout);
+            }
+        }
+        return bodies;
+    }
+
+    /**
+     * Returns the type of the i-th body in the mix.
+     */
+    private static int typeOf (String mix, int i)
+    {
+        switch (mix)
+        {
+        case "mixed":
+            return i % 4;
+        case "asteroids":
+            return StandIn.ASTEROID;
+        case "bullets":
+            return StandIn.BULLET;
+        case "debris":
+            return StandIn.DEBRIS;
+        case "stars":
+            return StandIn.STAR;
+        default:
+            throw new IllegalArgumentException("unknown mix " + mix);
+        }
+    }
+
+    /**
+     * Tests each body against the next.
+     */
+    private static void overlapAll (StandIn[] bodies)
+    {
+        int found = 0;
+        for (int i = 0; i < bodies.length; i++)
+        {
+            found += bodies[i].overlaps(bodies[(i + 1) % bodies.length]) ? 1 : 0;
+        }
+        sink = found;
+    }
+
+    /**
+     * Moves every body.
+     */
+    private static void moveAll (StandIn[] bodies)
+    {
+        for (StandIn b : bodies)
+        {
+            b.move();
+        }
+    }
+
+    /**
+     * Normalizes every angle, leaving the angles as they were.
+     */
+    private static void normalizeAll (double[] angles)
+    {
+        double sum = 0;
+        for (double angle : angles)
+        {
+            sum += Participant.normalize(angle);
+        }
+        sink = sum;
+    }
+
+}
@@ -0,0 +1,91 @@
+package asteroids.game;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+
+/**
+ * A participant for the benchmarks that looks like an asteroid, bullet, piece of debris or star, with the outline,
+ * collision layer and mask of one, but does not react to collisions, so that a population of them stays the same
+ * however long a benchmark runs.
+ */
+class StandIn extends Participant
+{
+    /** Types of stand-in: asteroid, bullet, debris and star */
+    final static int ASTEROID = 0, BULLET = 1, DEBRIS = 2, STAR = 3;
+
+    /** Collision layer of each type */
+    private final static int[] LAYERS = { CollisionLayer.ASTEROID, CollisionLayer.BULLET, CollisionLayer.DEBRIS,
+            CollisionLayer.STAR };
+
+    /** Collision mask of each type */
+    private final static int[] MASKS = {
+            CollisionLayer.SHIP | CollisionLayer.BULLET | CollisionLayer.ALIEN_SHIP | CollisionLayer.ALIEN_BULLET,
+            CollisionLayer.ASTEROID | CollisionLayer.ALIEN_SHIP, CollisionLayer.NONE, CollisionLayer.NONE };
+
+    /** Outline of an asteroid, an irregular polygon about 20 pixels across */
+    final static Shape ROCK = createRock();
+
+    /** Outline of the other types, a single pixel */
+    private final static Shape POINT = new Ellipse2D.Double(0, 0, 1, 1);
+
+    /** The type */
+    private final int type;
+
+    /**
+     * Creates a stand-in of the given type at (x,y), moving at the given speed in the given direction and rotated to
+     * face it.
+     */
+    StandIn (int type, double x, double y, double speed, double direction)
+    {
+        this.type = type;
+        setPosition(x, y);
+        setVelocity(speed, direction);
+        setRotation(direction);
+    }
+
+    @Override
+    protected Shape getOutline ()
+    {
+        return (type == ASTEROID) ? ROCK : POINT;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return LAYERS[type];
+    }
+
+    @Override
+    protected int getCollisionMask ()
+    {
+        return MASKS[type];
+    }
+
+    @Override
+    protected boolean isPointLike ()
+    {
+        return type != ASTEROID;
+    }
+
+    @Override
+    public void collidedWith (Participant p)
+    {
+    }
+
+    /**
+     * Returns the outline of an asteroid.
+     */
+    private static Shape createRock ()
+    {
+        Path2D.Double poly = new Path2D.Double();
+        poly.moveTo(0, -10);
+        poly.lineTo(8, -6);
+        poly.lineTo(10, 2);
+        poly.lineTo(3, 9);
+        poly.lineTo(-7, 7);
+        poly.lineTo(-10, -1);
+        poly.closePath();
+        return poly;
+    }
+}
@@ -24,13 +24,14 @@ public class Asteroids
         String[] options = { "Classic", "Enhanced" };
         int choice = JOptionPane.showOptionDialog(null, "Which version would you like to run?", "Choose a Version",
                 JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        long seed = Long.getLong(Constants.SEED_PROPERTY, System.nanoTime());
         if (choice == 0)
         {
-            new Controller(0);
+            new Controller(0, seed);
         }
         else if (choice == 1)
         {
-            new Controller(1);
+            new Controller(1, seed);
         }
     }
 }
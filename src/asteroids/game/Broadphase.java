@@ -0,0 +1,37 @@
+package asteroids.game;
+
+/**
+ * Finds the pairs of participants that might be colliding, so that only those pairs need to be tested with
+ * {@link Participant#overlaps(Participant)}. An implementation may report pairs that turn out not to overlap, but it
+ * must report every pair on interacting layers that does, and it must report each pair only once. It should check
+ * that the layers interact before doing any geometry.
+ */
+interface Broadphase
+{
+    /**
+     * Adds to pairs every pair of positions (i,j), i &lt; j, of bodies whose participants might be colliding.
+     */
+    void findCandidates (CollisionBodies bodies, CollisionPairs pairs);
+
+    /**
+     * Returns the broadphase with the given name: "brute" (every pair), "sap" (sweep and prune) or "grid" (uniform
+     * grid). Any other name, including null, selects the grid. The grid and sweep reject pairs in batches with a
+     * BoundsFilter unless the system property named by BOUNDS_PROPERTY is "scalar".
+     */
+    static Broadphase forName (String name)
+    {
+        boolean batched = !"scalar".equals(System.getProperty(Constants.BOUNDS_PROPERTY));
+        if ("brute".equals(name))
+        {
+            return new BruteForceBroadphase();
+        }
+        else if ("sap".equals(name))
+        {
+            return new SweepAndPruneBroadphase(batched ? new BoundsFilter() : null);
+        }
+        else
+        {
+            return new GridBroadphase(Constants.SIZE, Constants.GRID_CELL_SIZE, batched ? new BoundsFilter() : null);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package asteroids.game;
+
+/**
+ * Reports every pair of participants on interacting layers. This is the original quadratic behavior, kept as a
+ * reference.
+ */
+class BruteForceBroadphase implements Broadphase
+{
+    @Override
+    public void findCandidates (CollisionBodies bodies, CollisionPairs pairs)
+    {
+        for (int i = 0; i < bodies.count; i++)
+        {
+            for (int j = i + 1; j < bodies.count; j++)
+            {
+                if (bodies.interact(i, j))
+                {
+                    pairs.add(i, j);
+                }
+            }
+        }
+    }
+}
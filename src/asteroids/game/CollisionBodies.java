@@ -0,0 +1,120 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * The active Participants taking part in one collision pass, together with their bounding boxes. The arrays are
+ * reused from pass to pass so that building the set does not allocate once it has grown to size.
+ */
+class CollisionBodies
+{
+    /** The participants, in the order in which they appear in the ParticipantState */
+    Participant[] bodies;
+
+    /** Bounding box of each participant's border */
+    double[] minX, minY, maxX, maxY;
+
+    /** Center and radius of the circle that bounds each participant's collision shape */
+    double[] circleX, circleY, radius;
+
+    /** Index of each participant's collision layer */
+    int[] layer;
+
+    /** Number of participants in the set */
+    int count;
+
+    /** Which layers interact */
+    private CollisionMatrix matrix;
+
+    /**
+     * Creates an empty set whose layers interact as described by the matrix.
+     */
+    CollisionBodies (CollisionMatrix matrix)
+    {
+        this.matrix = matrix;
+        bodies = new Participant[64];
+        layer = new int[64];
+        minX = new double[64];
+        minY = new double[64];
+        maxX = new double[64];
+        maxY = new double[64];
+        circleX = new double[64];
+        circleY = new double[64];
+        radius = new double[64];
+        count = 0;
+    }
+
+    /**
+     * Empties the set.
+     */
+    void clear ()
+    {
+        Arrays.fill(bodies, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Adds p to the end of the set and records its position in p. If swept is true and p is a point that moved more
+     * than its width, its bounding box is stretched to cover the whole of its last move.
+     */
+    void add (Participant p, int layerIndex, boolean swept)
+    {
+        if (count == bodies.length)
+        {
+            int length = 2 * count;
+            bodies = Arrays.copyOf(bodies, length);
+            layer = Arrays.copyOf(layer, length);
+            minX = Arrays.copyOf(minX, length);
+            minY = Arrays.copyOf(minY, length);
+            maxX = Arrays.copyOf(maxX, length);
+            maxY = Arrays.copyOf(maxY, length);
+            circleX = Arrays.copyOf(circleX, length);
+            circleY = Arrays.copyOf(circleY, length);
+            radius = Arrays.copyOf(radius, length);
+        }
+        p.collisionIndex = count;
+        bodies[count] = p;
+        layer[count] = layerIndex;
+        minX[count] = p.getMinX();
+        minY[count] = p.getMinY();
+        maxX[count] = p.getMaxX();
+        maxY[count] = p.getMaxY();
+        circleX[count] = p.getCircleX();
+        circleY[count] = p.getCircleY();
+        radius[count] = p.getCircleRadius();
+        if (swept && p.isSwept())
+        {
+            radius[count] = Double.POSITIVE_INFINITY;
+            minX[count] = Math.min(minX[count], p.getLastPointX());
+            minY[count] = Math.min(minY[count], p.getLastPointY());
+            maxX[count] = Math.max(maxX[count], p.getLastPointX());
+            maxY[count] = Math.max(maxY[count], p.getLastPointY());
+        }
+        count++;
+    }
+
+    /**
+     * Reports whether the participants at positions i and j are on layers that interact, so that they need to be
+     * tested at all.
+     */
+    boolean interact (int i, int j)
+    {
+        return matrix.interacts(layer[i], layer[j]);
+    }
+
+    /**
+     * Returns the set of layers that the participant at position i interacts with.
+     */
+    int partnersOf (int i)
+    {
+        return matrix.partnersOf(layer[i]);
+    }
+
+    /**
+     * Reports whether the bounding boxes of the participants at positions i and j touch or overlap.
+     */
+    boolean boundsOverlap (int i, int j)
+    {
+        return minX[i] <= maxX[j] && minX[j] <= maxX[i] && minY[i] <= maxY[j] && minY[j] <= maxY[i];
+    }
+}
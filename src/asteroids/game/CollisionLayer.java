@@ -0,0 +1,57 @@
+package asteroids.game;
+
+/**
+ * The collision layers that Participants can belong to. Each layer is a single bit, so a set of layers is the bitwise
+ * or of its members. A Participant declares its own layer and a mask of the layers whose participants it reacts to
+ * in collidedWith; two participants are tested for overlap only if at least one of them reacts to the other.
+ */
+public class CollisionLayer
+{
+    /** The player's ship */
+    public final static int SHIP = 1 << 0;
+
+    /** Asteroids of all sizes */
+    public final static int ASTEROID = 1 << 1;
+
+    /** Bullets fired by the ship */
+    public final static int BULLET = 1 << 2;
+
+    /** Alien ships */
+    public final static int ALIEN_SHIP = 1 << 3;
+
+    /** Bullets fired by alien ships */
+    public final static int ALIEN_BULLET = 1 << 4;
+
+    /** Supply drops */
+    public final static int SUPPLY = 1 << 5;
+
+    /** Debris from explosions */
+    public final static int DEBRIS = 1 << 6;
+
+    /** Background stars */
+    public final static int STAR = 1 << 7;
+
+    /** Participants that do not declare a layer */
+    public final static int OTHER = 1 << 31;
+
+    /** The empty set of layers */
+    public final static int NONE = 0;
+
+    /** The set of all layers */
+    public final static int ALL = ~0;
+
+    /**
+     * Returns the position (0 through 31) of the bit for the layer
+     */
+    public static int indexOf (int layer)
+    {
+        return Integer.numberOfTrailingZeros(layer);
+    }
+
+    /**
+     * There are no CollisionLayer objects.
+     */
+    private CollisionLayer ()
+    {
+    }
+}
@@ -0,0 +1,56 @@
+package asteroids.game;
+
+/**
+ * Records which collision layers interact with which. Two layers interact if a participant on either one reacts to
+ * the other. The matrix is filled in as participants are added, so checking a pair costs a single lookup.
+ */
+class CollisionMatrix
+{
+    /** For each layer index, the set of layers that it interacts with */
+    private int[] partners;
+
+    /**
+     * Creates a matrix in which no layers interact.
+     */
+    CollisionMatrix ()
+    {
+        partners = new int[32];
+    }
+
+    /**
+     * Records that participants on the layer react to participants on the layers in the mask.
+     */
+    void register (int layer, int mask)
+    {
+        int index = CollisionLayer.indexOf(layer);
+        partners[index] |= mask;
+        for (int bits = mask; bits != 0; bits &= bits - 1)
+        {
+            partners[Integer.numberOfTrailingZeros(bits)] |= layer;
+        }
+    }
+
+    /**
+     * Reports whether the layer with the given index interacts with any layer at all.
+     */
+    boolean isActive (int index)
+    {
+        return partners[index] != 0;
+    }
+
+    /**
+     * Returns the set of layers that the layer with the given index interacts with.
+     */
+    int partnersOf (int index)
+    {
+        return partners[index];
+    }
+
+    /**
+     * Reports whether the layers with the given indexes interact.
+     */
+    boolean interacts (int index1, int index2)
+    {
+        return (partners[index1] & (1 << index2)) != 0;
+    }
+}
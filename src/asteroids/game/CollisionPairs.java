@@ -0,0 +1,78 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * A reusable list of candidate pairs produced by a {@link Broadphase}. Each pair is a pair of positions (i,j) in a
+ * {@link CollisionBodies} with i &lt; j. Once sorted, the pairs are in the order in which the original pairwise loop
+ * visited them: by increasing i, and for equal i by decreasing j.
+ */
+class CollisionPairs
+{
+    /** The pairs, each packed into a single sortable key */
+    private long[] keys;
+
+    /** Number of pairs in the list */
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    CollisionPairs ()
+    {
+        keys = new long[256];
+        size = 0;
+    }
+
+    /**
+     * Empties the list.
+     */
+    void clear ()
+    {
+        size = 0;
+    }
+
+    /**
+     * Adds the pair (i,j). Requires that i &lt; j.
+     */
+    void add (int i, int j)
+    {
+        if (size == keys.length)
+        {
+            keys = Arrays.copyOf(keys, 2 * size);
+        }
+        keys[size++] = ((long) i << 32) | (Integer.MAX_VALUE - j);
+    }
+
+    /**
+     * Puts the pairs into the order used for dispatching collisions.
+     */
+    void sort ()
+    {
+        Arrays.sort(keys, 0, size);
+    }
+
+    /**
+     * Returns the number of pairs
+     */
+    int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the smaller position of the k-th pair
+     */
+    int first (int k)
+    {
+        return (int) (keys[k] >>> 32);
+    }
+
+    /**
+     * Returns the larger position of the k-th pair
+     */
+    int second (int k)
+    {
+        return Integer.MAX_VALUE - (int) keys[k];
+    }
+}
@@ -0,0 +1,563 @@
+package asteroids.game;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The outline of a Participant broken into convex pieces, in the outline's own coordinates. It is computed once per
+ * outline and is what the narrowphase collision test works with. The region covered by the pieces is the same region
+ * that an Area built from the outline covers, with curves flattened to line segments. Parts of
+ * the outline that have no area, such as the tips of the ship's fins, are dropped just as the Area drops them.
+ */
+public class CollisionShape
+{
+    /** How closely curves are approximated by line segments, in pixels */
+    private final static double FLATNESS = 0.01;
+
+    /** Coordinates of the vertices of all the pieces, as x0, y0, x1, y1, ... */
+    final double[] vertices;
+
+    /** Piece k has the vertices with indexes start[k] up to but not including start[k + 1] */
+    final int[] start;
+
+    /** Coordinates of the corners of the outline itself, as x0, y0, x1, y1, ... */
+    final double[] corners;
+
+    /** Distance from the origin to the farthest vertex */
+    final double radius;
+
+    /** Area covered by the pieces */
+    final double area;
+
+    /** Center and half the width of the outline's bounding box, used when the outline is treated as a point */
+    final double pointX, pointY, pointRadius;
+
+    /** True if the outline has holes or could not be broken into convex pieces, so the Area test must be used */
+    final boolean useArea;
+
+    /** Number of evenly spaced rotations for which the vertices are rotated in advance, or 0 if there are none */
+    final int orientations;
+
+    /** For each rotation done in advance, the rotated vertices */
+    final double[][] orientedVertices;
+
+    /** For each rotation done in advance, the extents of the rotated outline (see rotatedExtents) */
+    final double[][] orientedExtents;
+
+    /** For each rotation done in advance, its cosine and sine */
+    final double[] orientedCos, orientedSin;
+
+    /**
+     * Returns a new collision shape for the outline. A shape never changes, so one made for an outline that never
+     * changes can be kept, for example in a static final field, and returned from
+     * {@link Participant#getCollisionShape(Shape)} by every participant with that outline.
+     */
+    public static CollisionShape create (Shape outline)
+    {
+        return new CollisionShape(outline, 0);
+    }
+
+    /**
+     * Returns a new collision shape for the outline, with its vertices and extents rotated in advance by each multiple
+     * of 2 Pi / orientations. A participant whose rotation is always one of those angles, like a ship that turns in
+     * fixed steps, then only has to translate its vertices. It should be created once per outline and kept, for example
+     * in a static final field.
+     */
+    public static CollisionShape oriented (Shape outline, int orientations)
+    {
+        return new CollisionShape(outline, orientations);
+    }
+
+    /**
+     * Breaks the outline into convex pieces and rotates it in advance by each multiple of 2 Pi / orientations.
+     */
+    private CollisionShape (Shape outline, int orientations)
+    {
+        ArrayList<double[]> pieces = new ArrayList<double[]>();
+        boolean hasHoles = false;
+        double outerSign = 0;
+
+        // Walk the boundary of the filled region, one closed polygon at a time
+        PathIterator iter = new Area(outline).getPathIterator(null, FLATNESS);
+        double[] coords = new double[6];
+        double[] polygon = new double[16];
+        int n = 0;
+        while (!iter.isDone())
+        {
+            int type = iter.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO)
+            {
+                n = 0;
+            }
+            if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_LINETO)
+            {
+                if (2 * n + 2 > polygon.length)
+                {
+                    polygon = Arrays.copyOf(polygon, 2 * polygon.length);
+                }
+                polygon[2 * n] = coords[0];
+                polygon[2 * n + 1] = coords[1];
+                n++;
+            }
+            else if (type == PathIterator.SEG_CLOSE)
+            {
+                double[] cleaned = clean(polygon, n);
+                if (cleaned.length >= 6)
+                {
+                    // Area traces outer boundaries in one direction and holes in the other
+                    double sign = Math.signum(signedArea(cleaned));
+                    if (outerSign == 0)
+                    {
+                        outerSign = sign;
+                    }
+                    else if (sign != outerSign)
+                    {
+                        hasHoles = true;
+                    }
+                    if (sign < 0)
+                    {
+                        cleaned = reverse(cleaned);
+                    }
+                    if (!decompose(cleaned, pieces))
+                    {
+                        hasHoles = true;
+                    }
+                }
+                n = 0;
+            }
+            iter.next();
+        }
+
+        // Record the corners of the outline, which bound it however it is rotated
+        iter = outline.getPathIterator(null, FLATNESS);
+        n = 0;
+        while (!iter.isDone())
+        {
+            int type = iter.currentSegment(coords);
+            if (type == PathIterator.SEG_MOVETO || type == PathIterator.SEG_LINETO)
+            {
+                if (2 * n + 2 > polygon.length)
+                {
+                    polygon = Arrays.copyOf(polygon, 2 * polygon.length);
+                }
+                polygon[2 * n] = coords[0];
+                polygon[2 * n + 1] = coords[1];
+                n++;
+            }
+            iter.next();
+        }
+        corners = Arrays.copyOf(polygon, 2 * n);
+
+        // Pack the pieces together
+        int total = 0;
+        for (double[] piece : pieces)
+        {
+            total += piece.length;
+        }
+        vertices = new double[total];
+        start = new int[pieces.size() + 1];
+        double farthest = 0;
+        int k = 0;
+        for (double[] piece : pieces)
+        {
+            System.arraycopy(piece, 0, vertices, 2 * start[k], piece.length);
+            start[k + 1] = start[k] + piece.length / 2;
+            k++;
+        }
+        for (int i = 0; i < total; i += 2)
+        {
+            farthest = Math.max(farthest, vertices[i] * vertices[i] + vertices[i + 1] * vertices[i + 1]);
+        }
+        radius = Math.sqrt(farthest);
+        double sum = 0;
+        for (double[] piece : pieces)
+        {
+            sum += signedArea(piece) / 2;
+        }
+        area = Math.abs(sum);
+        Rectangle2D bounds = outline.getBounds2D();
+        pointX = bounds.getCenterX();
+        pointY = bounds.getCenterY();
+        pointRadius = bounds.getWidth() / 2;
+        useArea = hasHoles || pieces.isEmpty();
+
+        // Rotate in advance
+        this.orientations = orientations;
+        orientedVertices = new double[orientations][];
+        orientedExtents = new double[orientations][];
+        orientedCos = new double[orientations];
+        orientedSin = new double[orientations];
+        for (int o = 0; o < orientations; o++)
+        {
+            double angle = 2 * Math.PI * o / orientations;
+            double cos = Math.cos(angle);
+            double sin = Math.sin(angle);
+            orientedCos[o] = cos;
+            orientedSin[o] = sin;
+            orientedExtents[o] = new double[4];
+            rotatedExtents(cos, sin, orientedExtents[o]);
+            double[] rotated = new double[total];
+            for (int i = 0; i < total; i += 2)
+            {
+                rotated[i] = cos * vertices[i] - sin * vertices[i + 1];
+                rotated[i + 1] = sin * vertices[i] + cos * vertices[i + 1];
+            }
+            orientedVertices[o] = rotated;
+        }
+    }
+
+    /**
+     * Returns which of the rotations done in advance the rotation is, allowing for rounding, or -1 if it is none of
+     * them.
+     */
+    int orientationOf (double rotation)
+    {
+        if (orientations == 0)
+        {
+            return -1;
+        }
+        double steps = rotation * orientations / (2 * Math.PI);
+        long nearest = Math.round(steps);
+        if (Math.abs(steps - nearest) > 1e-9)
+        {
+            return -1;
+        }
+        return (int) Math.floorMod(nearest, (long) orientations);
+    }
+
+    /**
+     * Stores into extents the smallest x, smallest y, largest x and largest y of the outline's corners after rotating
+     * the outline by the angle whose cosine and sine are given.
+     */
+    void rotatedExtents (double cos, double sin, double[] extents)
+    {
+        double loX = Double.POSITIVE_INFINITY, loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < corners.length; i += 2)
+        {
+            double rx = cos * corners[i] - sin * corners[i + 1];
+            double ry = sin * corners[i] + cos * corners[i + 1];
+            loX = Math.min(loX, rx);
+            loY = Math.min(loY, ry);
+            hiX = Math.max(hiX, rx);
+            hiY = Math.max(hiY, ry);
+        }
+        if (corners.length == 0)
+        {
+            // An empty outline sits at its origin
+            loX = loY = hiX = hiY = 0;
+        }
+        extents[0] = loX;
+        extents[1] = loY;
+        extents[2] = hiX;
+        extents[3] = hiY;
+    }
+
+    /**
+     * Returns the distance from the outline's origin to its farthest point
+     */
+    public double getRadius ()
+    {
+        return radius;
+    }
+
+    /**
+     * Returns the area covered by the outline
+     */
+    public double getArea ()
+    {
+        return area;
+    }
+
+    /**
+     * Returns the number of vertices in all the pieces
+     */
+    int vertexCount ()
+    {
+        return vertices.length / 2;
+    }
+
+    /**
+     * Returns the number of convex pieces
+     */
+    int pieceCount ()
+    {
+        return start.length - 1;
+    }
+
+    /**
+     * Reports whether piece a of the world coordinates wa overlaps piece b of the world coordinates wb, using the
+     * separating axis test. Pieces that only touch do not overlap.
+     */
+    static boolean piecesOverlap (double[] wa, int aFrom, int aTo, double[] wb, int bFrom, int bTo)
+    {
+        return !hasSeparatingEdge(wa, aFrom, aTo, wb, bFrom, bTo) && !hasSeparatingEdge(wb, bFrom, bTo, wa, aFrom, aTo);
+    }
+
+    /**
+     * Reports whether the piece of the world coordinates w overlaps the disk with center (cx,cy) and radius r. A disk
+     * that only touches the piece does not overlap it.
+     */
+    static boolean pieceOverlapsDisk (double[] w, int from, int to, double cx, double cy, double r)
+    {
+        boolean inside = true;
+        double nearest = Double.POSITIVE_INFINITY;
+        for (int i = from; i < to; i++)
+        {
+            int j = (i + 1 == to) ? from : i + 1;
+            double ex = w[2 * j] - w[2 * i];
+            double ey = w[2 * j + 1] - w[2 * i + 1];
+            double px = cx - w[2 * i];
+            double py = cy - w[2 * i + 1];
+            if (ex * py - ey * px <= 0)
+            {
+                inside = false;
+            }
+
+            // Squared distance from the center to the edge
+            double t = (ex * px + ey * py) / (ex * ex + ey * ey);
+            t = Math.max(0, Math.min(1, t));
+            double dx = px - t * ex;
+            double dy = py - t * ey;
+            nearest = Math.min(nearest, dx * dx + dy * dy);
+        }
+        return inside || nearest < r * r;
+    }
+
+    /**
+     * Returns the fraction of the way along the segment from (x0,y0) to (x1,y1) at which it first enters the interior
+     * of the piece of the world coordinates w, or -1 if it never does.
+     */
+    static double segmentEntersPiece (double[] w, int from, int to, double x0, double y0, double x1, double y1)
+    {
+        double enter = 0;
+        double exit = 1;
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        for (int i = from; i < to; i++)
+        {
+            int j = (i + 1 == to) ? from : i + 1;
+            double ex = w[2 * j] - w[2 * i];
+            double ey = w[2 * j + 1] - w[2 * i + 1];
+
+            // The segment is on the inner side of this edge where start + t * rate > 0
+            double start = ex * (y0 - w[2 * i + 1]) - ey * (x0 - w[2 * i]);
+            double rate = ex * dy - ey * dx;
+            if (rate == 0)
+            {
+                if (start <= 0)
+                {
+                    return -1;
+                }
+            }
+            else if (rate > 0)
+            {
+                enter = Math.max(enter, -start / rate);
+            }
+            else
+            {
+                exit = Math.min(exit, -start / rate);
+            }
+            if (enter >= exit)
+            {
+                return -1;
+            }
+        }
+        return enter;
+    }
+
+    /**
+     * Reports whether the normal of some edge of the first piece separates the two pieces.
+     */
+    private static boolean hasSeparatingEdge (double[] wa, int aFrom, int aTo, double[] wb, int bFrom, int bTo)
+    {
+        for (int i = aFrom; i < aTo; i++)
+        {
+            int j = (i + 1 == aTo) ? aFrom : i + 1;
+            double nx = wa[2 * j + 1] - wa[2 * i + 1];
+            double ny = wa[2 * i] - wa[2 * j];
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            for (int v = aFrom; v < aTo; v++)
+            {
+                double d = nx * wa[2 * v] + ny * wa[2 * v + 1];
+                minA = Math.min(minA, d);
+                maxA = Math.max(maxA, d);
+            }
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int v = bFrom; v < bTo; v++)
+            {
+                double d = nx * wb[2 * v] + ny * wb[2 * v + 1];
+                minB = Math.min(minB, d);
+                maxB = Math.max(maxB, d);
+            }
+            if (maxA <= minB || maxB <= minA)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first n vertices of the polygon without repeated or collinear vertices.
+     */
+    private static double[] clean (double[] polygon, int n)
+    {
+        double[] result = new double[2 * n];
+        int m = 0;
+        for (int i = 0; i < n; i++)
+        {
+            double x = polygon[2 * i], y = polygon[2 * i + 1];
+            if (m == 0 || x != result[2 * m - 2] || y != result[2 * m - 1])
+            {
+                result[2 * m] = x;
+                result[2 * m + 1] = y;
+                m++;
+            }
+        }
+        if (m > 1 && result[0] == result[2 * m - 2] && result[1] == result[2 * m - 1])
+        {
+            m--;
+        }
+
+        // Drop vertices that lie on the line through their neighbors until none are left
+        boolean changed = true;
+        while (changed && m >= 3)
+        {
+            changed = false;
+            for (int i = 0; i < m && m >= 3; i++)
+            {
+                int prev = (i + m - 1) % m, next = (i + 1) % m;
+                if (cross(result, prev, i, next) == 0)
+                {
+                    System.arraycopy(result, 2 * i + 2, result, 2 * i, 2 * (m - i - 1));
+                    m--;
+                    changed = true;
+                }
+            }
+        }
+        return (m >= 3) ? Arrays.copyOf(result, 2 * m) : new double[0];
+    }
+
+    /**
+     * Returns twice the signed area of the polygon (positive when its vertices run counterclockwise in a y-up frame).
+     */
+    private static double signedArea (double[] polygon)
+    {
+        double sum = 0;
+        int n = polygon.length / 2;
+        for (int i = 0; i < n; i++)
+        {
+            int j = (i + 1) % n;
+            sum += polygon[2 * i] * polygon[2 * j + 1] - polygon[2 * j] * polygon[2 * i + 1];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the polygon with its vertices in the opposite order.
+     */
+    private static double[] reverse (double[] polygon)
+    {
+        int n = polygon.length / 2;
+        double[] result = new double[polygon.length];
+        for (int i = 0; i < n; i++)
+        {
+            result[2 * i] = polygon[2 * (n - 1 - i)];
+            result[2 * i + 1] = polygon[2 * (n - 1 - i) + 1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cross product of the edges (a,b) and (b,c) of the polygon.
+     */
+    private static double cross (double[] p, int a, int b, int c)
+    {
+        return (p[2 * b] - p[2 * a]) * (p[2 * c + 1] - p[2 * b + 1])
+               - (p[2 * b + 1] - p[2 * a + 1]) * (p[2 * c] - p[2 * b]);
+    }
+
+    /**
+     * Adds convex pieces that together cover the polygon, whose vertices have positive orientation. A convex polygon
+     * is kept whole; anything else is cut into triangles by ear clipping. Returns false if the polygon could not be
+     * fully decomposed.
+     */
+    private static boolean decompose (double[] polygon, ArrayList<double[]> pieces)
+    {
+        int n = polygon.length / 2;
+        boolean convex = true;
+        for (int i = 0; i < n && convex; i++)
+        {
+            convex = cross(polygon, i, (i + 1) % n, (i + 2) % n) > 0;
+        }
+        if (convex)
+        {
+            pieces.add(polygon);
+            return true;
+        }
+
+        int[] remaining = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            remaining[i] = i;
+        }
+        int m = n;
+        int misses = 0;
+        int i = 0;
+        while (m > 3 && misses < m)
+        {
+            int a = remaining[(i + m - 1) % m], b = remaining[i % m], c = remaining[(i + 1) % m];
+            if (isEar(polygon, remaining, m, a, b, c))
+            {
+                pieces.add(new double[] { polygon[2 * a], polygon[2 * a + 1], polygon[2 * b], polygon[2 * b + 1],
+                        polygon[2 * c], polygon[2 * c + 1] });
+                System.arraycopy(remaining, i % m + 1, remaining, i % m, m - i % m - 1);
+                m--;
+                misses = 0;
+            }
+            else
+            {
+                i++;
+                misses++;
+            }
+            i = (m > 0) ? i % m : 0;
+        }
+        if (m == 3)
+        {
+            int a = remaining[0], b = remaining[1], c = remaining[2];
+            if (cross(polygon, a, b, c) > 0)
+            {
+                pieces.add(new double[] { polygon[2 * a], polygon[2 * a + 1], polygon[2 * b], polygon[2 * b + 1],
+                        polygon[2 * c], polygon[2 * c + 1] });
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports whether the triangle (a,b,c) is convex at b and contains none of the other remaining vertices.
+     */
+    private static boolean isEar (double[] p, int[] remaining, int m, int a, int b, int c)
+    {
+        if (cross(p, a, b, c) <= 0)
+        {
+            return false;
+        }
+        for (int k = 0; k < m; k++)
+        {
+            int v = remaining[k];
+            if (v != a && v != b && v != c && cross(p, a, b, v) >= 0 && cross(p, b, c, v) >= 0
+                && cross(p, c, a, v) >= 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,14 @@
+package asteroids.game;
+
+/**
+ * A change to a game, carried out by the session's thread on behalf of another thread. See
+ * {@link GameSession#submit(Command)}.
+ */
+@FunctionalInterface
+public interface Command
+{
+    /**
+     * Makes the change to the session.
+     */
+    void execute (GameSession session);
+}
@@ -0,0 +1,82 @@
+package asteroids.game;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue of Commands that any number of threads can add to without locking and that one thread, the game
+ * thread, empties once per move. Producers claim a position with a compare-and-set on the tail and then fill it in;
+ * the consumer takes the commands in order, stopping at a position that has been claimed but not yet filled in, which
+ * it picks up on its next pass. Neither side allocates. A producer that finds the queue full yields until there is
+ * room, which only happens if the game thread has stopped draining it.
+ */
+class CommandQueue
+{
+    /** Number of positions, a power of two */
+    private static final int CAPACITY = 1024;
+
+    /** The commands in their positions, or null where a position is empty */
+    private final AtomicReferenceArray<Command> slots;
+
+    /** The number of positions ever claimed by producers */
+    private final AtomicLong tail;
+
+    /** The number of commands ever taken by the consumer */
+    private final AtomicLong head;
+
+    /**
+     * Creates an empty queue.
+     */
+    CommandQueue ()
+    {
+        slots = new AtomicReferenceArray<Command>(CAPACITY);
+        tail = new AtomicLong();
+        head = new AtomicLong();
+    }
+
+    /**
+     * Adds the command to the end of the queue. Any thread may call this.
+     */
+    void offer (Command command)
+    {
+        while (true)
+        {
+            long t = tail.get();
+            if (t - head.get() >= CAPACITY)
+            {
+                Thread.yield();
+            }
+            else if (tail.compareAndSet(t, t + 1))
+            {
+                slots.lazySet((int) (t & (CAPACITY - 1)), command);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Executes, in order, the commands that were in the queue when this was called, and returns how many there were.
+     * Commands that they add wait for the next call. Only the game thread may call this.
+     */
+    int drain (GameSession session)
+    {
+        long h = head.get();
+        long end = tail.get();
+        int count = 0;
+        while (h < end)
+        {
+            int i = (int) (h & (CAPACITY - 1));
+            Command command = slots.get(i);
+            if (command == null)
+            {
+                // Claimed but not filled in yet
+                break;
+            }
+            slots.lazySet(i, null);
+            head.lazySet(++h);
+            command.execute(session);
+            count++;
+        }
+        return count;
+    }
+}
@@ -1,17 +1,10 @@
 package asteroids.game;
 
-import java.util.Random;
-
 /**
  * Provides constants that govern the game.
  */
 public class Constants
 {
-    /**
-     * A shared random number generator for general use.
-     */
-    public final static Random RANDOM = new Random();
-
     /**
      * The height and width of the game area.
      */
@@ -44,9 +37,22 @@ public class Constants
     public final static double SHIP_ACCELERATION = .65;
 
     /**
-     * The number of milliseconds between the beginnings of frame refreshes
+     * The number of milliseconds of game time simulated by each move of the participants. Speeds are in pixels per
+     * move.
      */
     public final static int FRAME_INTERVAL = 33;
+
+    /**
+     * The number of milliseconds between repaints of the screen, which draws the participants between their last two
+     * simulated positions. This is about 144 repaints per second.
+     */
+    public final static int RENDER_INTERVAL = 7;
+
+    /**
+     * The most milliseconds of real time that are simulated at one repaint. If the game falls further behind than
+     * this, as when the computer sleeps, the excess is dropped rather than simulated all at once.
+     */
+    public final static int MAX_FRAME_TIME = 250;
     
     /**
      * The number of milliseconds between beats, initially.
@@ -159,4 +165,74 @@ public class Constants
      * Distance between ships when used to display lives
      */
     public final static int SHIP_SEPARATION = 6;
+
+    /**
+     * Width and height in pixels of the cells used by the grid collision broadphase.
+     */
+    public final static int GRID_CELL_SIZE = 75;
+
+    /**
+     * Number of directions a ship can point in. Turning moves to the next one, and mouse aiming picks the nearest.
+     */
+    public final static int SHIP_ORIENTATIONS = 32;
+
+    /**
+     * System property that selects the collision broadphase at startup: "grid" (the default), "sap" or "brute".
+     */
+    public final static String BROADPHASE_PROPERTY = "asteroids.broadphase";
+
+    /**
+     * System property that selects the collision narrowphase at startup. Setting it to "area" uses the slow Area
+     * intersection test for debugging; anything else uses the convex piece test.
+     */
+    public final static String NARROWPHASE_PROPERTY = "asteroids.narrowphase";
+
+    /**
+     * System property that, when set to "true", enables continuous collisions: fast point-like participants such as
+     * bullets are tested along the whole of each move rather than only where they end up, so they cannot pass through
+     * small asteroids between ticks.
+     */
+    public final static String CONTINUOUS_PROPERTY = "asteroids.continuous";
+
+    /**
+     * System property that selects how participants are moved at startup. Setting it to "soa" keeps positions,
+     * velocities and rotations in parallel arrays that are updated in one tight loop; anything else moves each
+     * participant on its own.
+     */
+    public final static String KINEMATICS_PROPERTY = "asteroids.kinematics";
+
+    /**
+     * System property that selects how the broadphase rejects pairs at startup. Setting it to "scalar" tests each pair
+     * on its own; anything else tests pairs in batches over contiguous arrays.
+     */
+    public final static String BOUNDS_PROPERTY = "asteroids.bounds";
+
+    /**
+     * System property that turns on the parallel move phase at startup. Its value is the number of participants at
+     * which moving in parallel starts; if it is not set, participants are always moved one at a time.
+     */
+    public final static String PARALLEL_MOVE_PROPERTY = "asteroids.parallelMove";
+
+    /**
+     * System property that turns on parallel collision detection at startup. Its value is the number of candidate
+     * pairs at which testing them in parallel starts; if it is not set, pairs are always tested one at a time.
+     */
+    public final static String PARALLEL_COLLISIONS_PROPERTY = "asteroids.parallelCollisions";
+
+    /**
+     * System property giving the number of threads used for parallel work. It defaults to the number of processors.
+     */
+    public final static String PARALLELISM_PROPERTY = "asteroids.parallelism";
+
+    /**
+     * System property giving the seed of the random numbers of a game, so that a game can be reproduced. If it is not
+     * set, every game is different.
+     */
+    public final static String SEED_PROPERTY = "asteroids.seed";
+
+    /**
+     * System property giving the port on the loopback interface at which a game serves its metrics in the Prometheus
+     * text format. If it is not set, the metrics can only be read over JMX.
+     */
+    public final static String METRICS_PORT_PROPERTY = "asteroids.metricsPort";
 }
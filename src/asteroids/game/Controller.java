@@ -10,98 +10,74 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Iterator;
-import java.util.Random;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.locks.LockSupport;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.Clip;
 import javax.sound.sampled.LineUnavailableException;
+import javax.management.JMException;
+import javax.management.ObjectName;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import javax.swing.*;
 import asteroids.participants.*;
 
 /**
- * Controls a game of Asteroids.
+ * Controls a game of Asteroids on the screen. The game itself is a GameSession; the controller shows it in a Display,
+ * turns keyboard and mouse events into input, plays its sounds, and keeps its high score in a file.
+ *
+ * The game runs on a thread of its own, which steps the session and publishes a RenderSnapshot of the participants
+ * after every move. The Swing event dispatch thread only paints the latest snapshot and records input.
  */
-public class Controller implements KeyListener, ActionListener, MouseListener
+public class Controller extends GameSession implements KeyListener, ActionListener, MouseListener
 {
-    /** The state of all the Participants */
-    private ParticipantState pstate;
-
-    /** The ship (if one is active) or null (otherwise) */
-    private Ship ship;
-
-    /** The alien ship */
-    private AlienShip AlienShip;
-
-    /** When this timer goes off, it is time to refresh the animation */
+    /** When this timer goes off, it is time to repaint the screen */
     private Timer refreshTimer;
 
-    /**
-     * The time at which a transition to a new stage of the game should be made. A transition is scheduled a few seconds
-     * in the future to give the user time to see what has happened before doing something like going to a new level or
-     * resetting the current level.
-     */
-    private long transitionTime;
-
-    /** Number of lives left */
-    private int lives;
+    /** Passes the snapshots of the participants from the game thread to the screen */
+    private SnapshotBuffer snapshots;
 
     /** The game display */
     private Display display;
 
-    /** Level currently being played **/
-    private int level;
-
-    /** Current Score */
-    private int score;
-    
-    private int highScore;
-
-    /** Boolean that indicates ship movement */
-    private boolean forward;
-    /** Boolean that indicates ship movement */
-    private boolean right;
-    /** Boolean that indicates ship movement */
-    private boolean left;
-    /** Boolean that indicates ship movement */
-    private boolean fire;
-
-    /** Mouse coordinates X */
-    private double mouseX;
-    /** Mouse coordinates Y */
-    private double mouseY;
-
     /** console command */
     private String consoleCommand;
 
-    /** True if mouse control is enabled */
-    private boolean mouseControl;
+    /** The name under which the metrics are registered as an MBean, or null if they are not */
+    private ObjectName metricsName;
+
+    /** The server of the metrics over HTTP, or null if there is none */
+    private MetricsServer metricsServer;
+
+    /** The thread that runs the game */
+    private Thread gameThread;
 
-    /** The version of the game */
-    private int version;
+    /** Set once the controller is closed, to stop the game thread */
+    private volatile boolean closed;
 
     /**
-     * Constructs a controller to coordinate the game and screen
+     * Constructs a controller to coordinate the game and screen, with a game that is different every time
      */
     public Controller (int version)
     {
-        // Initialize the ParticipantState
-        pstate = new ParticipantState();
+        this(version, System.nanoTime());
+    }
 
-        // Set up the refresh timer.
-        refreshTimer = new Timer(FRAME_INTERVAL, this);
+    /**
+     * Constructs a controller to coordinate the game and screen, with random numbers drawn from the seed. Games
+     * played the same way with the same seed turn out the same.
+     */
+    public Controller (int version, long seed)
+    {
+        super(version, seed);
 
-        // Clear the transitionTime
-        transitionTime = Long.MAX_VALUE;
+        // Set up the refresh timer, which repaints more often than the participants move, and the hand-off
+        // between the game thread and the screen
+        refreshTimer = new Timer(RENDER_INTERVAL, this);
+        snapshots = new SnapshotBuffer();
 
         // Record the display object
         display = new Display(this);
-
-        // Initialize level
-        level = 1;
-
-        // initialize control
-        mouseControl = false;
+        setView(display);
 
         // Bring up the splash screen and start the refresh timer
         splashScreen();
@@ -109,229 +85,139 @@ public class Controller implements KeyListener, ActionListener, MouseListener
         refreshTimer.start();
         highScore();
 
-        // Sets the version
-        this.version = version;
-    }
+        // Start the game
+        gameThread = new Thread(this::runGame, "Asteroids game");
+        gameThread.setDaemon(true);
+        setGameThread(gameThread);
+        gameThread.start();
 
-    /**
-     * Returns the ship, or null if there isn't one
-     */
-    public Ship getShip ()
-    {
-        return ship;
+        // Publish the timings of the game, and shut everything down when the window closes
+        exportMetrics();
+        display.addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosing (WindowEvent e)
+            {
+                close();
+            }
+        });
     }
 
     /**
-     * Configures the game screen to display the splash screen
+     * Registers the game's metrics as an MBean, and serves them over HTTP if METRICS_PORT_PROPERTY gives a port. The
+     * game goes on without them if they cannot be published.
      */
-    private void splashScreen ()
+    private void exportMetrics ()
     {
-        // Clear the screen, reset the level, and display the legend
-        clear();
-        display.setLegend("Asteroids");
-
-        // Place four asteroids near the corners of the screen.
-        placeAsteroids(4);
-        if (version == 1)
+        String session = "game-" + Integer.toHexString(System.identityHashCode(this));
+        try
         {
-            // place stars as background
-            placeStars();
-            highScore();
+            metricsName = getMetrics().register(session);
+        }
+        catch (JMException e)
+        {
+            System.err.println("Cannot register the metrics MBean: " + e);
         }
-    }
-
-    /**
-     * The game is over. Displays a message to that effect.
-     */
-    private void finalScreen ()
-    {
-        display.setLegend(GAME_OVER);
-        display.removeKeyListener(this);
-    }
-
-    /**
-     * Place a new ship in the center of the screen. Remove any existing ship first.
-     */
-    private void placeShip ()
-    {
-        // Place a new ship
-        Participant.expire(ship);
-        ship = new Ship(SIZE / 2, SIZE / 2, -Math.PI / 2, this);
-        addParticipant(ship);
-        display.setLegend("");
-    }
 
-    /**
-     * Places an asteroid near the corners of the screen based on level. Gives it a random velocity, variety, and
-     * rotation.
-     */
-    private void placeAsteroids (int num)
-    {
-        while (num > 0)
+        Integer port = Integer.getInteger(METRICS_PORT_PROPERTY);
+        if (port != null)
         {
-            if (num % 4 == 0)
-            {
-                addParticipant(new Asteroid(new Random().nextInt(3), 2, 150, 150, 3, this));
-                num--;
-            }
-            else if (num % 4 == 1)
-            {
-                addParticipant(new Asteroid(new Random().nextInt(3), 2, 600, 150, 3, this));
-                num--;
-            }
-            else if (num % 4 == 2)
+            try
             {
-                addParticipant(new Asteroid(new Random().nextInt(3), 2, 150, 600, 3, this));
-                num--;
+                MetricsServer server = new MetricsServer(port);
+                server.add(session, getMetrics());
+                server.start();
+                metricsServer = server;
             }
-            else
+            catch (IOException e)
             {
-                addParticipant(new Asteroid(new Random().nextInt(3), 2, 600, 600, 3, this));
-                num--;
+                System.err.println("Cannot serve the metrics on port " + port + ": " + e);
             }
         }
     }
 
     /**
-     * Place some stars
+     * Stops the game thread and the refresh timer, stops serving the game's metrics over HTTP, unregisters their
+     * MBean and shuts down the pool of the parallel passes. This can be called more than once.
      */
-    private void placeStars ()
+    @Override
+    public void close ()
     {
-        Random rng = new Random();
-        for (int i = 0; i < rng.nextInt(10) + 5; i++)
+        if (closed)
         {
-            this.addParticipant(new Star());
+            return;
         }
-    }
-
-    /**
-     * Clears the screen so that nothing is displayed
-     */
-    private void clear ()
-    {
-        pstate.clear();
-        display.setLegend("");
-        ship = null;
-        AlienShip = null;
-    }
-
-    /**
-     * Sets things up and begins a new game.
-     */
-    private void initialScreen ()
-    {
-        // Clear the screen
-        clear();
-
-        // Place asteroids
-        placeAsteroids(4);
-
-        if (version == 1)
+        closed = true;
+        refreshTimer.stop();
+        try
         {
-            // place stars
-            placeStars();
+            gameThread.join(1000);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        super.close();
+        if (metricsServer != null)
+        {
+            metricsServer.stop();
+            metricsServer = null;
+        }
+        if (metricsName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            }
+            catch (JMException e)
+            {
+                System.err.println("Cannot unregister the metrics MBean: " + e);
+            }
+            metricsName = null;
         }
-
-        // Place the ship
-        placeShip();
-
-        // reset movement
-        right = false;
-        left = false;
-        forward = false;
-        fire = false;
-
-        // Reset statistics
-        level = 1;
-        display.setLevel(level);
-        lives = 3;
-        display.setLives(lives);
-
-        // Start listening to events (but don't listen twice)
-        display.removeKeyListener(this);
-        display.addKeyListener(this);
-        display.removeMouseListener(this);
-        display.addMouseListener(this);
-
-        // Give focus to the game screen
-        display.requestFocusInWindow();
-
-        // Set the level control
-        this.levelControl(level);
-    }
-
-    /**
-     * Adds a new Participant
-     */
-    public void addParticipant (Participant p)
-    {
-        pstate.addParticipant(p);
     }
 
     /**
-     * The ship has been destroyed
+     * Returns the latest snapshot of the participants published by the game thread. Only the thread that paints the
+     * screen may call this, and it may use the snapshot until its next call.
      */
-    public void shipDestroyed ()
+    RenderSnapshot getSnapshot ()
     {
-        // Null out the ship
-        ship = null;
-        fire = false;
-        forward = false;
-        left = false;
-        right = false;
-        // Display a legend
-        display.setLegend("Ouch!");
-
-        // Decrement lives
-        lives--;
-        display.setLives(lives);
-
-        // Since the ship was destroyed, schedule a transition
-        scheduleTransition(END_DELAY);
+        return snapshots.latest();
     }
 
     /**
-     * An asteroid has been destroyed
+     * Starts listening to events (but doesn't listen twice), and gives focus to the game screen
      */
-    public void asteroidDestroyed ()
+    @Override
+    protected void gameStarted ()
     {
-        // If all the asteroids are gone, schedule a transition
-        if (pstate.countAsteroids() == 0)
+        SwingUtilities.invokeLater( () ->
         {
-            scheduleTransition(END_DELAY);
-        }
-
-        display.setScore(score);
-    }
-
-    public void AlienShipDestroyed ()
-    {
-        AlienShip = null;
-        Random rng = new Random();
-        this.scheduleTransition(5000 + rng.nextInt(5000));
+            display.removeKeyListener(this);
+            display.addKeyListener(this);
+            display.removeMouseListener(this);
+            display.addMouseListener(this);
+            display.requestFocusInWindow();
+        });
     }
 
     /**
-     * Schedules a transition m msecs in the future
+     * Stops listening to the keyboard once the game is over
      */
-    private void scheduleTransition (int m)
+    @Override
+    protected void gameOver ()
     {
-        transitionTime = System.currentTimeMillis() + m;
+        SwingUtilities.invokeLater( () -> display.removeKeyListener(this));
     }
 
     /**
-     * Return true if there are at least 8 bullets
+     * Aims at the mouse pointer
      */
-    public boolean hasMaxBullets ()
+    @Override
+    protected void readAim ()
     {
-        if (!ship.isInvulnerable)
-        {
-            return this.pstate.countBullets() >= 8;
-        }
-        else
-        {
-            return false;
-        }
+        setAim(MouseInfo.getPointerInfo().getLocation().x, MouseInfo.getPointerInfo().getLocation().y);
     }
 
     /**
@@ -344,129 +230,74 @@ public class Controller implements KeyListener, ActionListener, MouseListener
         // and bring up the initial screen
         if (e.getSource() instanceof JButton)
         {
-            initialScreen();
+            submit(GameSession::initialScreen);
         }
 
-        // Time to refresh the screen and deal with keyboard input
+        // Time to repaint the screen
         else if (e.getSource() == refreshTimer)
         {
-            // It may be time to make a game transition
-            performTransition();
+            display.refresh();
+        }
+    }
 
-            // Move the ship according to which boolean is currently true
-            if (ship != null)
+    /**
+     * Runs the game until the controller is closed. Each pass simulates as many whole moves as fit in the time that
+     * has passed, carrying the rest over, publishes a snapshot of the participants if they moved, and sleeps until
+     * the next move is due.
+     */
+    private void runGame ()
+    {
+        long step = FRAME_INTERVAL * 1000000L;
+        long unsimulated = 0;
+        long last = System.nanoTime();
+        while (!closed)
+        {
+            long now = System.nanoTime();
+            unsimulated += Math.min(now - last, MAX_FRAME_TIME * 1000000L);
+            last = now;
+            boolean moved = false;
+            while (unsimulated >= step)
             {
-                if (right)
+                unsimulated -= step;
+                moved = true;
+                try
                 {
-                    ship.turnRight();
+                    step();
                 }
-                else if (left)
+                catch (RuntimeException e)
                 {
-                    ship.turnLeft();
+                    reportFailure("move", e);
                 }
-                if (forward)
+            }
+
+            if (moved)
+            {
+                try
                 {
-                    ship.accelerate();
+                    long mark = System.nanoTime();
+                    RenderSnapshot snapshot = snapshots.back();
+                    capture(snapshot);
+                    snapshot.time = now - unsimulated;
+                    snapshots.publish();
+                    getMetrics().lap(TickMetrics.CAPTURE, mark);
                 }
-                if (fire)
+                catch (RuntimeException e)
                 {
-                    ship.fire();
+                    reportFailure("snapshot", e);
                 }
             }
-
-            // Control the alien ship
-            if (AlienShip != null)
-            {
-                AlienShip.setSpeed(MAXIMUM_LARGE_ASTEROID_SPEED);
-            }
-
-            // Update mouse coordinates
-            mouseY = MouseInfo.getPointerInfo().getLocation().y;
-            mouseX = MouseInfo.getPointerInfo().getLocation().x;
-            // Update ship direction
-            if (ship != null && mouseControl)
-            {
-                double dx = mouseX - ship.getX();
-                double dy = mouseY - ship.getY();
-                ship.setRotation(Participant.normalize(Math.atan2(dy, dx)));
-            }
-
-            // Move the participants to their new locations
-            pstate.moveParticipants();
-
-            // Refresh screen
-            display.refresh();
-        }
-    }
-
-    /**
-     * Returns an iterator over the active participants
-     */
-    public Iterator<Participant> getParticipants ()
-    {
-        return pstate.getParticipants();
-    }
-
-    /**
-     * If the transition time has been reached, transition to a new state
-     */
-    private void performTransition ()
-    {
-        // Do something only if the time has been reached
-        if (transitionTime <= System.currentTimeMillis())
-        {
-            // Clear the transition time
-            transitionTime = Long.MAX_VALUE;
-
-            // If there are no lives left, the game is over. Show the final
-            // screen.
-            if (lives <= 0)
-            {
-                finalScreen();
-                highScore();
-            }
-            else if (pstate.countAsteroids() == 0 && pstate.countAlienShip() == 0)
-            {
-                placeAsteroids(level + 4);
-                level++;
-                display.setLevel(level);
-                levelControl(level);
-            }
-            else if (ship == null)
-            {
-                this.placeShip();
-            }
-            else if (AlienShip == null)
-            {
-                levelControl(level);
-            }
+            LockSupport.parkNanos(step - unsimulated);
         }
     }
 
     /**
-     * Spawns the alien ship according to the current level
+     * Reports on stderr that a move or snapshot failed. The game thread carries on with the next one, as the Swing
+     * timer that used to drive the game did after an exception in one of its ticks.
      */
-    public void levelControl (int level)
-    {
-        if (level == 2)
-        {
-            Random rng = new Random();
-            int posY = rng.nextInt(SIZE);
-            AlienShip = new AlienShip(0, posY, 0, this, level);
-            this.addParticipant(AlienShip);
-        }
-        else if (level > 2)
-        {
-            Random rng = new Random();
-            int posY = rng.nextInt(SIZE);
-            AlienShip = new AlienShip(0, posY, 0, this, level);
-            this.addParticipant(AlienShip);
-        }
-    }
-
-    public void scoreControl (int score)
+    private static void reportFailure (String what, RuntimeException e)
     {
-        this.score = this.score + score;
+        System.err.println("The game thread failed to make a " + what + ":");
+        e.printStackTrace();
     }
 
     /**
@@ -475,24 +306,24 @@ public class Controller implements KeyListener, ActionListener, MouseListener
     @Override
     public void keyPressed (KeyEvent e)
     {
-        if ((e.getKeyCode() == KeyEvent.VK_D | e.getKeyCode() == KeyEvent.VK_RIGHT) && ship != null)
+        if ((e.getKeyCode() == KeyEvent.VK_D | e.getKeyCode() == KeyEvent.VK_RIGHT) && hasShip())
         {
             right = true;
         }
-        else if ((e.getKeyCode() == KeyEvent.VK_A | e.getKeyCode() == KeyEvent.VK_LEFT) && ship != null)
+        else if ((e.getKeyCode() == KeyEvent.VK_A | e.getKeyCode() == KeyEvent.VK_LEFT) && hasShip())
         {
             left = true;
         }
-        else if ((e.getKeyCode() == KeyEvent.VK_W | e.getKeyCode() == KeyEvent.VK_UP) && ship != null)
+        else if ((e.getKeyCode() == KeyEvent.VK_W | e.getKeyCode() == KeyEvent.VK_UP) && hasShip())
         {
             forward = true;
         }
-        if ((e.getKeyCode() == KeyEvent.VK_SPACE) && ship != null)
+        if ((e.getKeyCode() == KeyEvent.VK_SPACE) && hasShip())
         {
             fire = true;
         }
 
-        if (version == 1 && e.getKeyCode() == KeyEvent.VK_M && ship != null && version == 1)
+        if (getVersion() == 1 && e.getKeyCode() == KeyEvent.VK_M && hasShip() && getVersion() == 1)
         {
             if (mouseControl)
             {
@@ -505,14 +336,6 @@ public class Controller implements KeyListener, ActionListener, MouseListener
         }
     }
 
-    /**
-     * Return the version of the game
-     */
-    public int getVersion ()
-    {
-        return version;
-    }
-
     /**
      * These events are ignored.
      */
@@ -527,20 +350,20 @@ public class Controller implements KeyListener, ActionListener, MouseListener
     @Override
     public void keyReleased (KeyEvent e)
     {
-        if ((e.getKeyCode() == KeyEvent.VK_D | e.getKeyCode() == KeyEvent.VK_RIGHT) && ship != null)
+        if ((e.getKeyCode() == KeyEvent.VK_D | e.getKeyCode() == KeyEvent.VK_RIGHT) && hasShip())
         {
             right = false;
         }
-        else if ((e.getKeyCode() == KeyEvent.VK_A | e.getKeyCode() == KeyEvent.VK_LEFT) && ship != null)
+        else if ((e.getKeyCode() == KeyEvent.VK_A | e.getKeyCode() == KeyEvent.VK_LEFT) && hasShip())
         {
             left = false;
         }
-        else if ((e.getKeyCode() == KeyEvent.VK_W | e.getKeyCode() == KeyEvent.VK_UP) && ship != null)
+        else if ((e.getKeyCode() == KeyEvent.VK_W | e.getKeyCode() == KeyEvent.VK_UP) && hasShip())
         {
             forward = false;
-            ship.stop();
+            submit(GameSession::stopShip);
         }
-        if ((e.getKeyCode() == KeyEvent.VK_SPACE) && ship != null)
+        if ((e.getKeyCode() == KeyEvent.VK_SPACE) && hasShip())
         {
             fire = false;
         }
@@ -549,37 +372,48 @@ public class Controller implements KeyListener, ActionListener, MouseListener
         if (e.getKeyCode() == KeyEvent.VK_DECIMAL)
         {
             consoleCommand = JOptionPane.showInputDialog(null, "", "Console", JOptionPane.DEFAULT_OPTION);
-            // Execute console command
-            if (consoleCommand != null)
+            // Execute console command on the game thread
+            String command = consoleCommand;
+            if (command != null)
             {
-                if (consoleCommand.equals("whosyourdaddy") && ship != null)
-                {
-                    this.playSound("/sounds/John_Cena.wav");
-                    ship.setInvulnerability();
-                }
-                else if (consoleCommand.equals("add_as") && ship != null)
-                {
-                    addParticipant(new Asteroid(new Random().nextInt(3), 2, 150, 150, 3, this));
-                }
-                else if (consoleCommand.equals("mousecontrol") && ship != null)
-                {
-                    if (mouseControl)
-                    {
-                        mouseControl = false;
-                    }
-                    if (!mouseControl)
-                    {
-                        mouseControl = true;
-                    }
-                }
-                else
-                {
-                    JOptionPane.showMessageDialog(null, "Command invalid: ship is expired");
-                }
+                submit(s -> runConsoleCommand(command));
             }
         }
     }
 
+    /**
+     * Carries out a debugging console command.
+     */
+    private void runConsoleCommand (String consoleCommand)
+    {
+        Ship ship = getShip();
+        if (consoleCommand.equals("whosyourdaddy") && ship != null)
+        {
+            this.playSound("/sounds/John_Cena.wav");
+            ship.setInvulnerability();
+        }
+        else if (consoleCommand.equals("add_as") && ship != null)
+        {
+            addParticipant(Asteroid.create(getRandom().levels.nextInt(3), 2, 150, 150, 3, this));
+        }
+        else if (consoleCommand.equals("mousecontrol") && ship != null)
+        {
+            if (mouseControl)
+            {
+                mouseControl = false;
+            }
+            if (!mouseControl)
+            {
+                mouseControl = true;
+            }
+        }
+        else
+        {
+            SwingUtilities.invokeLater(
+                    () -> JOptionPane.showMessageDialog(null, "Command invalid: ship is expired"));
+        }
+    }
+
     /**
      * Creates an audio clip from a sound file.
      */
@@ -614,9 +448,14 @@ public class Controller implements KeyListener, ActionListener, MouseListener
     /**
      * Play designated sound
      */
+    @Override
     public void playSound (String filePath)
     {
         Clip sound = createClip(filePath);
+        if (sound == null)
+        {
+            return;
+        }
         if (sound.isRunning())
         {
             sound.stop();
@@ -656,10 +495,7 @@ public class Controller implements KeyListener, ActionListener, MouseListener
         if (e.getButton() == MouseEvent.BUTTON1 && mouseControl)
         {
             forward = false;
-            if (ship != null)
-            {
-                ship.stop();
-            }
+            submit(GameSession::stopShip);
         }
         else
         {
@@ -678,23 +514,10 @@ public class Controller implements KeyListener, ActionListener, MouseListener
     }
 
     /**
-     * Add extra lives if having less than 10 lives, otherwise add 1000 score.
+     * Reads the high score from highScore.txt, and writes the current score there if it beats it.
      */
-    public void addLives (int num)
-    {
-        if (lives < 10)
-        {
-            this.lives = this.lives + num;
-            display.setLives(lives);
-        }
-        else
-        {
-            score = score + 1000;
-            display.setScore(score);
-        }
-    }
-    
-    private void highScore()
+    @Override
+    protected void highScore ()
     {
         File file =  new File("highScore.txt");
         try
@@ -703,14 +526,12 @@ public class Controller implements KeyListener, ActionListener, MouseListener
             try
             {
                 String highScoreStr = br.readLine();                
-                highScore = Integer.parseInt(highScoreStr);
-                display.setHighScore(highScore);
-                if (score > highScore)
+                setHighScore(Integer.parseInt(highScoreStr));
+                if (getScore() > getHighScore())
                 {
-                    highScore = score;
-                    display.setHighScore(highScore);
+                    setHighScore(getScore());
                     PrintWriter pw = new PrintWriter(file);
-                    pw.print(Integer.toString(highScore));
+                    pw.print(Integer.toString(getHighScore()));
                     pw.close();
                 }
                 
@@ -8,7 +8,7 @@ import java.awt.*;
  * Defines the top-level appearance of an Asteroids game.
  */
 @SuppressWarnings("serial")
-public class Display extends JFrame
+public class Display extends JFrame implements GameView
 {
     /** The area where the action takes place */
     private Screen screen;
@@ -0,0 +1,50 @@
+package asteroids.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * The random numbers of one game, as a separate stream for each part of the game, all split from a single seed. A game
+ * started with the same seed and played with the same input plays out the same way. Keeping the parts apart means
+ * that drawing more or fewer numbers in one of them, such as a change in how much debris an explosion makes, does not
+ * change what happens in the others.
+ *
+ * The streams are not safe to share between threads; like the rest of the game, they belong to the game thread.
+ */
+public class GameRandom
+{
+    /** The seed the streams were split from */
+    private final long seed;
+
+    /** Where asteroids, stars and alien ships appear, and when transitions happen */
+    public final SplittableRandom levels;
+
+    /** How asteroids move and split, and what they drop */
+    public final SplittableRandom asteroids;
+
+    /** How alien ships steer and aim */
+    public final SplittableRandom aliens;
+
+    /** Debris and the motion of supplies */
+    public final SplittableRandom effects;
+
+    /**
+     * Creates the streams of a game from the seed.
+     */
+    public GameRandom (long seed)
+    {
+        this.seed = seed;
+        SplittableRandom root = new SplittableRandom(seed);
+        levels = root.split();
+        asteroids = root.split();
+        aliens = root.split();
+        effects = root.split();
+    }
+
+    /**
+     * Returns the seed the streams were split from, which reproduces the game
+     */
+    public long getSeed ()
+    {
+        return seed;
+    }
+}
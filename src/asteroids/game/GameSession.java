@@ -0,0 +1,778 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import asteroids.participants.*;
+
+/**
+ * One game of Asteroids: its participants, random numbers, clock, score, lives and level, and the input that steers
+ * its ship. A session has no window, timer or thread of its own. Whoever runs it calls step once per move, and it
+ * reports what the player should see to a GameView. Sessions share nothing that changes, so any number of them can run
+ * at once in one JVM, each on its own thread.
+ *
+ * Every change to the game (adding or expiring a participant, changing the score or lives, scheduling a transition)
+ * is made on the thread that runs the session. The public methods that make such changes may be called from any
+ * thread: called from another thread, they submit a Command to a lock-free queue that the session empties at the
+ * start of every step. Called on the session's thread, as they are by participants, they take effect at once, which
+ * is safe because the ParticipantState already holds back additions and removals until the end of the move.
+ */
+public class GameSession
+{
+    /** The handle of a participant that was submitted to be added by another thread, and so has none yet */
+    public static final long NO_HANDLE = -1;
+
+    /** The state of all the Participants */
+    private ParticipantState pstate;
+
+    /** The ship (if one is active) or null (otherwise) */
+    private volatile Ship ship;
+
+    /** Handle of the ship in the ParticipantState */
+    private long shipHandle;
+
+    /** The alien ship */
+    private AlienShip AlienShip;
+
+    /** Handle of the alien ship in the ParticipantState */
+    private long alienShipHandle;
+
+    /** The thread that runs the session, or null if it is run by the thread that created it */
+    private volatile Thread gameThread;
+
+    /** Changes submitted by other threads for the session to make before its next move */
+    private CommandQueue commands;
+
+    /** Milliseconds of game time that have passed, FRAME_INTERVAL per step */
+    private long time;
+
+    /**
+     * The game time at which a transition to a new stage of the game should be made. A transition is scheduled a few
+     * seconds in the future to give the user time to see what has happened before doing something like going to a new
+     * level or resetting the current level.
+     */
+    private long transitionTime;
+
+    /** Number of lives left */
+    private int lives;
+
+    /** What the player sees */
+    private GameView view;
+
+    /** Level currently being played **/
+    private int level;
+
+    /** Current Score */
+    private int score;
+
+    /** Highest Score */
+    private int highScore;
+
+    /** Boolean that indicates ship movement */
+    protected volatile boolean forward;
+    /** Boolean that indicates ship movement */
+    protected volatile boolean right;
+    /** Boolean that indicates ship movement */
+    protected volatile boolean left;
+    /** Boolean that indicates ship movement */
+    protected volatile boolean fire;
+
+    /** Coordinates that the ship points at under mouse control */
+    private volatile double aimX, aimY;
+
+    /** True if mouse control is enabled */
+    protected volatile boolean mouseControl;
+
+    /** The version of the game */
+    private int version;
+
+    /** The pools of the participants that the game spawns */
+    private ParticipantPools pools;
+
+    /** The random numbers of the game */
+    private GameRandom random;
+
+    /**
+     * Creates a session of the given version (0 for classic, 1 for enhanced) whose random numbers are drawn from the
+     * seed. Sessions played the same way with the same seed turn out the same. Nothing is placed until the splash
+     * screen or a new game is shown, and nothing is seen until a view is set. If the parallel move or collision
+     * passes are turned on, they run on a pool of the session's own, which close shuts down.
+     */
+    public GameSession (int version, long seed)
+    {
+        this(version, seed, new ParticipantState());
+    }
+
+    /**
+     * Creates a session like the one above, whose parallel move and collision passes, if they are turned on, run on
+     * the given pool. The pool may be shared with other sessions, and is not shut down by close.
+     */
+    public GameSession (int version, long seed, ForkJoinPool pool)
+    {
+        this(version, seed, new ParticipantState(pool));
+    }
+
+    /**
+     * Creates a session whose participants are kept in pstate.
+     */
+    private GameSession (int version, long seed, ParticipantState pstate)
+    {
+        this.pstate = pstate;
+        pools = new ParticipantPools();
+        random = new GameRandom(seed);
+        commands = new CommandQueue();
+        view = GameView.NONE;
+        transitionTime = Long.MAX_VALUE;
+        level = 1;
+        mouseControl = false;
+        this.version = version;
+    }
+
+    /**
+     * Releases what the session holds outside the JVM's heap: the pool of its parallel passes, if it has one of its
+     * own. The session must not be stepped afterwards.
+     */
+    public void close ()
+    {
+        pstate.close();
+    }
+
+    /**
+     * Makes the view show the game from now on.
+     */
+    protected void setView (GameView view)
+    {
+        this.view = view;
+    }
+
+    /**
+     * Makes thread the one that runs the session. Until this is called, the session belongs to the thread that
+     * created it, or to the one it was handed to.
+     */
+    protected void setGameThread (Thread thread)
+    {
+        gameThread = thread;
+    }
+
+    /**
+     * Has the session's thread execute the command before its next move. Any thread may call this.
+     */
+    public void submit (Command command)
+    {
+        commands.offer(command);
+    }
+
+    /**
+     * Reports whether the caller is the thread that runs the session.
+     */
+    protected boolean isGameThread ()
+    {
+        Thread thread = gameThread;
+        return thread == null || Thread.currentThread() == thread;
+    }
+
+    /**
+     * Returns the pools from which this game's participants are obtained
+     */
+    public ParticipantPools getPools ()
+    {
+        return pools;
+    }
+
+    /**
+     * Returns the timings and counts of this game's moves
+     */
+    public TickMetrics getMetrics ()
+    {
+        return pstate.metrics;
+    }
+
+    /**
+     * Returns the random numbers of this game
+     */
+    public GameRandom getRandom ()
+    {
+        return random;
+    }
+
+    /**
+     * Returns the milliseconds of game time that have passed
+     */
+    public long getTime ()
+    {
+        return time;
+    }
+
+    /**
+     * Returns the current score
+     */
+    public int getScore ()
+    {
+        return score;
+    }
+
+    /**
+     * Returns the number of lives left
+     */
+    public int getLives ()
+    {
+        return lives;
+    }
+
+    /**
+     * Returns the level being played
+     */
+    public int getLevel ()
+    {
+        return level;
+    }
+
+    /**
+     * Reports whether there is a ship, without checking that it is still live. Any thread may call this.
+     */
+    protected boolean hasShip ()
+    {
+        return ship != null;
+    }
+
+    /**
+     * Returns the ship, or null if there isn't one
+     */
+    public Ship getShip ()
+    {
+        return (ship != null && pstate.isLive(shipHandle)) ? ship : null;
+    }
+
+    /**
+     * Configures the game screen to display the splash screen
+     */
+    public void splashScreen ()
+    {
+        // Clear the screen, reset the level, and display the legend
+        clear();
+        view.setLegend("Asteroids");
+
+        // Place four asteroids near the corners of the screen.
+        placeAsteroids(4);
+        if (version == 1)
+        {
+            // place stars as background
+            placeStars();
+            highScore();
+        }
+    }
+
+    /**
+     * The game is over. Displays a message to that effect.
+     */
+    private void finalScreen ()
+    {
+        view.setLegend(GAME_OVER);
+        gameOver();
+    }
+
+    /**
+     * Called when the game is over, after the view has been told. Subclasses can stop listening to input here.
+     */
+    protected void gameOver ()
+    {
+    }
+
+    /**
+     * Place a new ship in the center of the screen. Remove any existing ship first.
+     */
+    private void placeShip ()
+    {
+        // Place a new ship
+        Participant.expire(ship);
+        ship = new Ship(SIZE / 2, SIZE / 2, -Math.PI / 2, this);
+        shipHandle = addParticipant(ship);
+        view.setLegend("");
+    }
+
+    /**
+     * Places an asteroid near the corners of the screen based on level. Gives it a random velocity, variety, and
+     * rotation.
+     */
+    private void placeAsteroids (int num)
+    {
+        while (num > 0)
+        {
+            if (num % 4 == 0)
+            {
+                addParticipant(Asteroid.create(random.levels.nextInt(3), 2, 150, 150, 3, this));
+                num--;
+            }
+            else if (num % 4 == 1)
+            {
+                addParticipant(Asteroid.create(random.levels.nextInt(3), 2, 600, 150, 3, this));
+                num--;
+            }
+            else if (num % 4 == 2)
+            {
+                addParticipant(Asteroid.create(random.levels.nextInt(3), 2, 150, 600, 3, this));
+                num--;
+            }
+            else
+            {
+                addParticipant(Asteroid.create(random.levels.nextInt(3), 2, 600, 600, 3, this));
+                num--;
+            }
+        }
+    }
+
+    /**
+     * Place some stars
+     */
+    private void placeStars ()
+    {
+        SplittableRandom rng = random.levels;
+        for (int i = 0; i < rng.nextInt(10) + 5; i++)
+        {
+            this.addParticipant(new Star(rng.nextInt(SIZE), rng.nextInt(SIZE)));
+        }
+    }
+
+    /**
+     * Clears the screen so that nothing is displayed
+     */
+    private void clear ()
+    {
+        pstate.clear();
+        view.setLegend("");
+        ship = null;
+        AlienShip = null;
+    }
+
+    /**
+     * Sets things up and begins a new game.
+     */
+    public void initialScreen ()
+    {
+        initialScreen(1);
+    }
+
+    /**
+     * Sets things up and begins a new game at the given level, with as many asteroids as that level would start with
+     * had it been reached in play.
+     */
+    public void initialScreen (int level)
+    {
+        // Clear the screen
+        clear();
+
+        // Place asteroids
+        placeAsteroids(level + 3);
+
+        if (version == 1)
+        {
+            // place stars
+            placeStars();
+        }
+
+        // Place the ship
+        placeShip();
+
+        // reset movement
+        right = false;
+        left = false;
+        forward = false;
+        fire = false;
+
+        // Reset statistics
+        this.level = level;
+        view.setLevel(level);
+        lives = 3;
+        view.setLives(lives);
+        gameStarted();
+
+        // Set the level control
+        this.levelControl(level);
+    }
+
+    /**
+     * Called when a new game has been set up. Subclasses can start listening to input here.
+     */
+    protected void gameStarted ()
+    {
+    }
+
+    /**
+     * Adds a new Participant and returns its handle. Called from a thread other than the session's, submits the
+     * addition and returns NO_HANDLE.
+     */
+    public long addParticipant (Participant p)
+    {
+        if (!isGameThread())
+        {
+            submit(s -> s.addParticipant(p));
+            return NO_HANDLE;
+        }
+        return pstate.addParticipant(p);
+    }
+
+    /**
+     * Expires the participant, which may be null.
+     */
+    public void expire (Participant p)
+    {
+        if (!isGameThread())
+        {
+            submit(s -> s.expire(p));
+            return;
+        }
+        Participant.expire(p);
+    }
+
+    /**
+     * The ship has been destroyed
+     */
+    public void shipDestroyed ()
+    {
+        if (!isGameThread())
+        {
+            submit(GameSession::shipDestroyed);
+            return;
+        }
+
+        // Null out the ship
+        ship = null;
+        fire = false;
+        forward = false;
+        left = false;
+        right = false;
+        // Display a legend
+        view.setLegend("Ouch!");
+
+        // Decrement lives
+        lives--;
+        view.setLives(lives);
+
+        // Since the ship was destroyed, schedule a transition
+        scheduleTransition(END_DELAY);
+    }
+
+    /**
+     * An asteroid has been destroyed
+     */
+    public void asteroidDestroyed ()
+    {
+        if (!isGameThread())
+        {
+            submit(GameSession::asteroidDestroyed);
+            return;
+        }
+
+        // If all the asteroids are gone, schedule a transition
+        if (pstate.countAsteroids() == 0)
+        {
+            scheduleTransition(END_DELAY);
+        }
+
+        view.setScore(score);
+    }
+
+    public void AlienShipDestroyed ()
+    {
+        if (!isGameThread())
+        {
+            submit(GameSession::AlienShipDestroyed);
+            return;
+        }
+        AlienShip = null;
+        this.scheduleTransition(5000 + random.levels.nextInt(5000));
+    }
+
+    /**
+     * Schedules a transition m msecs of game time in the future
+     */
+    private void scheduleTransition (int m)
+    {
+        transitionTime = time + m;
+    }
+
+    /**
+     * Return true if there are at least 8 bullets
+     */
+    public boolean hasMaxBullets ()
+    {
+        if (!ship.isInvulnerable)
+        {
+            return this.pstate.countBullets() >= 8;
+        }
+        else
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Advances the game by one move of FRAME_INTERVAL milliseconds of game time, making the submitted changes and
+     * applying the input first. Only the session's thread may call this.
+     */
+    public void step ()
+    {
+        TickMetrics metrics = pstate.metrics;
+        long start = System.nanoTime();
+
+        // Make the changes submitted by other threads
+        commands.drain(this);
+        time += FRAME_INTERVAL;
+        long mark = metrics.lap(TickMetrics.COMMANDS, start);
+
+        // It may be time to make a game transition
+        performTransition();
+        mark = metrics.lap(TickMetrics.TRANSITIONS, mark);
+
+        // Move the ship according to which boolean is currently true
+        if (ship != null)
+        {
+            if (right)
+            {
+                ship.turnRight();
+            }
+            else if (left)
+            {
+                ship.turnLeft();
+            }
+            if (forward)
+            {
+                ship.accelerate();
+            }
+            if (fire)
+            {
+                ship.fire();
+            }
+        }
+
+        // Control the alien ship
+        if (AlienShip != null && pstate.isLive(alienShipHandle))
+        {
+            AlienShip.setSpeed(MAXIMUM_LARGE_ASTEROID_SPEED);
+        }
+        mark = metrics.lap(TickMetrics.INPUT, mark);
+
+        // Update ship direction
+        readAim();
+        if (ship != null && mouseControl)
+        {
+            double dx = aimX - ship.getX();
+            double dy = aimY - ship.getY();
+            ship.setRotation(Participant.quantize(Math.atan2(dy, dx), SHIP_ORIENTATIONS));
+        }
+        metrics.lap(TickMetrics.AIM, mark);
+
+        // Move the participants to their new locations
+        pstate.moveParticipants();
+        metrics.lap(TickMetrics.TICK, start);
+    }
+
+    /**
+     * Called before the ship is pointed under mouse control, to bring the aim up to date with setAim. Does nothing
+     * unless overridden.
+     */
+    protected void readAim ()
+    {
+    }
+
+    /**
+     * Sets whether the ship is thrusting. Any thread may call this.
+     */
+    public void setThrust (boolean on)
+    {
+        forward = on;
+        if (!on)
+        {
+            submit(GameSession::stopShip);
+        }
+    }
+
+    /**
+     * Sets whether the ship is turning left. Any thread may call this.
+     */
+    public void setTurningLeft (boolean on)
+    {
+        left = on;
+    }
+
+    /**
+     * Sets whether the ship is turning right. Any thread may call this.
+     */
+    public void setTurningRight (boolean on)
+    {
+        right = on;
+    }
+
+    /**
+     * Sets whether the ship is firing. Any thread may call this.
+     */
+    public void setFiring (boolean on)
+    {
+        fire = on;
+    }
+
+    /**
+     * Sets the point that the ship points at under mouse control. Any thread may call this.
+     */
+    public void setAim (double x, double y)
+    {
+        aimX = x;
+        aimY = y;
+    }
+
+    /**
+     * Stops the ship from accelerating, if there is one.
+     */
+    protected void stopShip ()
+    {
+        if (ship != null)
+        {
+            ship.stop();
+        }
+    }
+
+    /**
+     * Returns an iterator over the active participants. Only the session's thread may call this.
+     */
+    public Iterator<Participant> getParticipants ()
+    {
+        return pstate.getParticipants();
+    }
+
+    /**
+     * Fills in the snapshot with the active participants. Only the session's thread may call this.
+     */
+    void capture (RenderSnapshot snapshot)
+    {
+        pstate.capture(snapshot);
+    }
+
+    /**
+     * If the transition time has been reached, transition to a new state
+     */
+    private void performTransition ()
+    {
+        // Do something only if the time has been reached
+        if (transitionTime <= time)
+        {
+            // Clear the transition time
+            transitionTime = Long.MAX_VALUE;
+
+            // If there are no lives left, the game is over. Show the final
+            // screen.
+            if (lives <= 0)
+            {
+                finalScreen();
+                highScore();
+            }
+            else if (pstate.countAsteroids() == 0 && pstate.countAlienShip() == 0)
+            {
+                placeAsteroids(level + 4);
+                level++;
+                view.setLevel(level);
+                levelControl(level);
+            }
+            else if (ship == null)
+            {
+                this.placeShip();
+            }
+            else if (AlienShip == null)
+            {
+                levelControl(level);
+            }
+        }
+    }
+
+    /**
+     * Spawns the alien ship according to the current level
+     */
+    public void levelControl (int level)
+    {
+        if (level == 2)
+        {
+            int posY = random.levels.nextInt(SIZE);
+            AlienShip = new AlienShip(0, posY, 0, this, level);
+            alienShipHandle = this.addParticipant(AlienShip);
+        }
+        else if (level > 2)
+        {
+            int posY = random.levels.nextInt(SIZE);
+            AlienShip = new AlienShip(0, posY, 0, this, level);
+            alienShipHandle = this.addParticipant(AlienShip);
+        }
+    }
+
+    public void scoreControl (int score)
+    {
+        if (!isGameThread())
+        {
+            submit(s -> s.scoreControl(score));
+            return;
+        }
+        this.score = this.score + score;
+    }
+
+    /**
+     * Return the version of the game
+     */
+    public int getVersion ()
+    {
+        return version;
+    }
+
+    /**
+     * Play designated sound. A session makes no sound unless this is overridden.
+     */
+    public void playSound (String filePath)
+    {
+    }
+
+    /**
+     * Add extra lives if having less than 10 lives, otherwise add 1000 score.
+     */
+    public void addLives (int num)
+    {
+        if (!isGameThread())
+        {
+            submit(s -> s.addLives(num));
+            return;
+        }
+        if (lives < 10)
+        {
+            this.lives = this.lives + num;
+            view.setLives(lives);
+        }
+        else
+        {
+            score = score + 1000;
+            view.setScore(score);
+        }
+    }
+
+    /**
+     * Makes the high score at least the current score and shows it. The high score lasts as long as the session
+     * unless this is overridden to keep it somewhere.
+     */
+    protected void highScore ()
+    {
+        setHighScore(Math.max(highScore, score));
+    }
+
+    /**
+     * Returns the high score
+     */
+    protected int getHighScore ()
+    {
+        return highScore;
+    }
+
+    /**
+     * Sets the high score and shows it
+     */
+    protected void setHighScore (int highScore)
+    {
+        this.highScore = highScore;
+        view.setHighScore(highScore);
+    }
+}
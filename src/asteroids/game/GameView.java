@@ -0,0 +1,48 @@
+package asteroids.game;
+
+/**
+ * What a GameSession tells the player about the game, apart from the participants themselves. Every method does
+ * nothing unless it is overridden, so NONE shows nothing at all.
+ */
+public interface GameView
+{
+    /** A view that shows nothing, for sessions that run without a screen */
+    GameView NONE = new GameView()
+    {
+    };
+
+    /**
+     * Shows the large legend across the screen
+     */
+    default void setLegend (String legend)
+    {
+    }
+
+    /**
+     * Shows the level being played
+     */
+    default void setLevel (int level)
+    {
+    }
+
+    /**
+     * Shows the number of lives left
+     */
+    default void setLives (int lives)
+    {
+    }
+
+    /**
+     * Shows the current score
+     */
+    default void setScore (int score)
+    {
+    }
+
+    /**
+     * Shows the highest score
+     */
+    default void setHighScore (int highScore)
+    {
+    }
+}
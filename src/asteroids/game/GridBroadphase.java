@@ -0,0 +1,148 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * A uniform-grid spatial hash covering the game area. Each participant is entered into every cell that its bounding
+ * box touches, and only participants that share a cell are paired. Participants that are partly off screen are
+ * clamped into the edge cells.
+ */
+class GridBroadphase implements Broadphase
+{
+    /** Number of cells along each side of the grid */
+    private int cells;
+
+    /** Width and height of each cell in pixels */
+    private double cellSize;
+
+    /** Positions of the bodies in each cell, in increasing order */
+    private int[][] items;
+
+    /** Number of bodies in each cell */
+    private int[] counts;
+
+    /** Range of cells covered by each body */
+    private int[] firstColumn, firstRow, lastColumn, lastRow;
+
+    /** Rejects the pairs in a cell in batches, or null to test each pair on its own */
+    private BoundsFilter filter;
+
+    /** The survivors of each batch */
+    private int[] survivors;
+
+    /**
+     * Creates a grid that covers a square area of the given size with cells of the given size. If filter is not null,
+     * it is used to reject the pairs in each cell.
+     */
+    GridBroadphase (int areaSize, int cellSize, BoundsFilter filter)
+    {
+        this.filter = filter;
+        this.cells = (areaSize + cellSize - 1) / cellSize;
+        this.cellSize = cellSize;
+        items = new int[cells * cells][8];
+        counts = new int[cells * cells];
+        firstColumn = new int[64];
+        firstRow = new int[64];
+        lastColumn = new int[64];
+        lastRow = new int[64];
+    }
+
+    @Override
+    public void findCandidates (CollisionBodies bodies, CollisionPairs pairs)
+    {
+        Arrays.fill(counts, 0);
+        if (firstColumn.length < bodies.count)
+        {
+            int length = Math.max(bodies.count, 2 * firstColumn.length);
+            firstColumn = new int[length];
+            firstRow = new int[length];
+            lastColumn = new int[length];
+            lastRow = new int[length];
+        }
+
+        // Enter each body into the cells it covers
+        for (int i = 0; i < bodies.count; i++)
+        {
+            firstColumn[i] = cellOf(bodies.minX[i]);
+            firstRow[i] = cellOf(bodies.minY[i]);
+            lastColumn[i] = cellOf(bodies.maxX[i]);
+            lastRow[i] = cellOf(bodies.maxY[i]);
+            for (int row = firstRow[i]; row <= lastRow[i]; row++)
+            {
+                for (int column = firstColumn[i]; column <= lastColumn[i]; column++)
+                {
+                    int cell = row * cells + column;
+                    if (counts[cell] == items[cell].length)
+                    {
+                        items[cell] = Arrays.copyOf(items[cell], 2 * counts[cell]);
+                    }
+                    items[cell][counts[cell]++] = i;
+                }
+            }
+        }
+
+        // Pair up the bodies in each cell. A pair that shares several cells is reported only from the first cell
+        // that both of them cover.
+        for (int row = 0; row < cells; row++)
+        {
+            for (int column = 0; column < cells; column++)
+            {
+                int cell = row * cells + column;
+                int[] list = items[cell];
+                if (filter != null)
+                {
+                    pairCell(bodies, pairs, list, counts[cell], row, column);
+                    continue;
+                }
+                for (int a = 0; a < counts[cell]; a++)
+                {
+                    int i = list[a];
+                    for (int b = a + 1; b < counts[cell]; b++)
+                    {
+                        int j = list[b];
+                        if (bodies.interact(i, j) && Math.max(firstColumn[i], firstColumn[j]) == column
+                            && Math.max(firstRow[i], firstRow[j]) == row && bodies.boundsOverlap(i, j))
+                        {
+                            pairs.add(i, j);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Pairs up the n bodies in the list, which is the cell at the given row and column, using the filter.
+     */
+    private void pairCell (CollisionBodies bodies, CollisionPairs pairs, int[] list, int n, int row, int column)
+    {
+        if (n < 2)
+        {
+            return;
+        }
+        filter.gather(bodies, list, n);
+        survivors = filter.outputFor(survivors);
+        for (int a = 0; a < n - 1; a++)
+        {
+            int i = list[a];
+            int found = filter.test(a, a + 1, n, survivors);
+            for (int k = 0; k < found; k++)
+            {
+                int j = list[survivors[k]];
+                if (Math.max(firstColumn[i], firstColumn[j]) == column && Math.max(firstRow[i], firstRow[j]) == row)
+                {
+                    pairs.add(i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the row or column of the cell containing the coordinate, clamped to the grid.
+     */
+    private int cellOf (double coordinate)
+    {
+        int cell = (int) Math.floor(coordinate / cellSize);
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+}
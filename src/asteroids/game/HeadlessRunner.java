@@ -0,0 +1,195 @@
+package asteroids.game;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+
+/**
+ * Plays a GameSession with no window, no sound and no timer, as fast as it will go, steering the ship from a script.
+ * It runs with java.awt.headless set to true, and so can run on a machine with no display. When it is done it prints
+ * how many moves it made per second, the score, lives and level that the game reached, and the time taken by each
+ * phase of a move.
+ *
+ * The arguments are any of -seed n, -version n (0 for classic, 1 for enhanced) and -ticks n (the number of moves to
+ * make), followed by the name of the script, if there is one. Each line of the script names a move (counting from 0)
+ * and what the player does at that move:
+ *
+ * <pre>
+ *   0    fire on
+ *   0    left on
+ *   120  thrust on
+ *   150  thrust off
+ *   9000 newgame
+ * </pre>
+ *
+ * The inputs are thrust, left, right and fire, each turned on or off, and newgame, which starts a new game. Blank
+ * lines and lines starting with # are ignored. Without a script, the player does nothing.
+ */
+public class HeadlessRunner
+{
+    /**
+     * One line of the script.
+     */
+    private static class Event
+    {
+        /** The move at which the event happens */
+        final int tick;
+
+        /** The input that the event changes */
+        final String input;
+
+        /** Whether the input is turned on */
+        final boolean on;
+
+        /**
+         * Creates an event that changes input at tick.
+         */
+        Event (int tick, String input, boolean on)
+        {
+            this.tick = tick;
+            this.input = input;
+            this.on = on;
+        }
+
+        /**
+         * Applies the event to the session.
+         */
+        void apply (GameSession session)
+        {
+            switch (input)
+            {
+            case "thrust":
+                session.setThrust(on);
+                break;
+            case "left":
+                session.setTurningLeft(on);
+                break;
+            case "right":
+                session.setTurningRight(on);
+                break;
+            case "fire":
+                session.setFiring(on);
+                break;
+            default:
+                session.initialScreen();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs the session described by the arguments.
+     */
+    public static void main (String[] args) throws IOException
+    {
+        if (System.getProperty("java.awt.headless") == null)
+        {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        long seed = Long.getLong(Constants.SEED_PROPERTY, System.nanoTime());
+        int version = 1;
+        int ticks = 60000;
+        String script = null;
+        for (int i = 0; i < args.length; i++)
+        {
+            if (args[i].equals("-seed") && i + 1 < args.length)
+            {
+                seed = Long.parseLong(args[++i]);
+            }
+            else if (args[i].equals("-version") && i + 1 < args.length)
+            {
+                version = Integer.parseInt(args[++i]);
+            }
+            else if (args[i].equals("-ticks") && i + 1 < args.length)
+            {
+                ticks = Integer.parseInt(args[++i]);
+            }
+            else if (script == null && !args[i].startsWith("-"))
+            {
+                script = args[i];
+            }
+            else
+            {
+                System.err.println("usage: HeadlessRunner [-seed n] [-version n] [-ticks n] [script]");
+                System.exit(2);
+            }
+        }
+
+        ArrayList<Event> events = (script == null) ? new ArrayList<Event>() : readScript(script);
+        GameSession session = new GameSession(version, seed);
+        session.initialScreen();
+
+        int next = 0;
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++)
+        {
+            while (next < events.size() && events.get(next).tick <= tick)
+            {
+                events.get(next++).apply(session);
+            }
+            session.step();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("seed %d, version %d: %d moves in %.3f s, %.0f moves/s%n", seed, version, ticks, seconds,
+                ticks / seconds);
+        System.out.printf("score %d, lives %d, level %d, %.1f minutes of game time%n", session.getScore(),
+                session.getLives(), session.getLevel(), session.getTime() / 60000.0);
+        System.out.print(session.getMetrics().getSummary());
+    }
+
+    /**
+     * Reads the events in the named script, in the order in which they happen. Events at the same move are kept in
+     * the order of the script.
+     */
+    private static ArrayList<Event> readScript (String name) throws IOException
+    {
+        ArrayList<Event> events = new ArrayList<Event>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(name)))
+        {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null)
+            {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+                events.add(parse(line, name + ":" + number));
+            }
+        }
+        events.sort(Comparator.comparingInt(e -> e.tick));
+        return events;
+    }
+
+    /**
+     * Returns the event on a line of a script, or throws an IllegalArgumentException naming where the line is if it
+     * is not an event.
+     */
+    private static Event parse (String line, String where)
+    {
+        String[] words = line.split("\\s+");
+        try
+        {
+            int tick = Integer.parseInt(words[0]);
+            if (words.length == 2 && words[1].equals("newgame") && tick >= 0)
+            {
+                return new Event(tick, words[1], true);
+            }
+            if (words.length == 3 && words[1].matches("thrust|left|right|fire") && words[2].matches("on|off")
+                && tick >= 0)
+            {
+                return new Event(tick, words[1], words[2].equals("on"));
+            }
+        }
+        catch (NumberFormatException e)
+        {
+        }
+        throw new IllegalArgumentException(where + ": not an event: " + line);
+    }
+}
@@ -0,0 +1,298 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Holds the position, velocity and rotation of many Participants in parallel arrays, so that the move phase is a tight
+ * loop over primitive arrays rather than a virtual call on each participant. A participant that is attached to the
+ * store reads and writes its kinematic state here instead of in its own fields.
+ *
+ * Participants that override beforeMove or afterMove are kept in a list and have those methods called in a pass before
+ * and a pass after the loop. Participants whose class overrides move itself cannot be attached, and are moved one by
+ * one as before.
+ */
+class KinematicStore
+{
+    /** Position of the center of each participant */
+    double[] x, y;
+
+    /** Speed of each participant in pixels per frame */
+    double[] speedX, speedY;
+
+    /** Rotation of each participant in radians */
+    double[] rotation;
+
+    /** Position of the center of each border as of the last move and the move before */
+    double[] borderX, borderY, lastBorderX, lastBorderY;
+
+    /** Extents of each rotated outline relative to its center */
+    double[] lowX, lowY, highX, highY;
+
+    /** Bounding box of each border as of the last move */
+    double[] minX, minY, maxX, maxY;
+
+    /** The participant in each slot */
+    private Participant[] owners;
+
+    /** Number of slots in use */
+    int size;
+
+    /** Number of times the store has moved its participants */
+    int tick;
+
+    /** The attached participants that override beforeMove or afterMove */
+    private ArrayList<Participant> hooked;
+
+    /** The participants whose class overrides move, which are moved one at a time */
+    private ArrayList<Participant> unattached;
+
+    /** Scratch space for computing extents */
+    private final double[] extents;
+
+    /**
+     * Creates an empty store.
+     */
+    KinematicStore ()
+    {
+        allocate(256);
+        owners = new Participant[256];
+        hooked = new ArrayList<Participant>();
+        unattached = new ArrayList<Participant>();
+        extents = new double[4];
+    }
+
+    /**
+     * Makes every array hold at least capacity entries.
+     */
+    private void allocate (int capacity)
+    {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        speedX = grow(speedX, capacity);
+        speedY = grow(speedY, capacity);
+        rotation = grow(rotation, capacity);
+        borderX = grow(borderX, capacity);
+        borderY = grow(borderY, capacity);
+        lastBorderX = grow(lastBorderX, capacity);
+        lastBorderY = grow(lastBorderY, capacity);
+        lowX = grow(lowX, capacity);
+        lowY = grow(lowY, capacity);
+        highX = grow(highX, capacity);
+        highY = grow(highY, capacity);
+        minX = grow(minX, capacity);
+        minY = grow(minY, capacity);
+        maxX = grow(maxX, capacity);
+        maxY = grow(maxY, capacity);
+    }
+
+    /**
+     * Returns a copy of the array with the given length, or a new array if it is null.
+     */
+    private static double[] grow (double[] array, int capacity)
+    {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * Takes over the kinematic state of p, or if its class overrides move, remembers to move it one at a time.
+     */
+    void add (Participant p)
+    {
+        if ((p.moveKind & MoveKinds.MOVE) != 0)
+        {
+            unattached.add(p);
+            return;
+        }
+        if (size == owners.length)
+        {
+            allocate(2 * size);
+            owners = Arrays.copyOf(owners, 2 * size);
+        }
+        owners[size] = p;
+        p.attach(this, size);
+        size++;
+        if (p.moveKind != 0)
+        {
+            hooked.add(p);
+        }
+    }
+
+    /**
+     * Gives p its kinematic state back. The last slot is moved into the one that p leaves.
+     */
+    void remove (Participant p)
+    {
+        if (p.store != this)
+        {
+            return;
+        }
+        int i = p.slot;
+        p.detach();
+        size--;
+        if (i != size)
+        {
+            Participant last = owners[size];
+            owners[i] = last;
+            last.slot = i;
+            x[i] = x[size];
+            y[i] = y[size];
+            speedX[i] = speedX[size];
+            speedY[i] = speedY[size];
+            rotation[i] = rotation[size];
+            borderX[i] = borderX[size];
+            borderY[i] = borderY[size];
+            lastBorderX[i] = lastBorderX[size];
+            lastBorderY[i] = lastBorderY[size];
+            lowX[i] = lowX[size];
+            lowY[i] = lowY[size];
+            highX[i] = highX[size];
+            highY[i] = highY[size];
+            minX[i] = minX[size];
+            minY[i] = minY[size];
+            maxX[i] = maxX[size];
+            maxY[i] = maxY[size];
+        }
+        owners[size] = null;
+    }
+
+    /**
+     * Drops the expired participants from the hook lists. The slots of expired participants are freed by remove.
+     */
+    void removeExpired ()
+    {
+        removeExpired(hooked);
+        removeExpired(unattached);
+    }
+
+    /**
+     * Removes the expired participants from the list, keeping the rest in order.
+     */
+    private static void removeExpired (ArrayList<Participant> list)
+    {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++)
+        {
+            Participant p = list.get(i);
+            if (!p.isExpired())
+            {
+                list.set(kept++, p);
+            }
+        }
+        while (list.size() > kept)
+        {
+            list.remove(list.size() - 1);
+        }
+    }
+
+    /**
+     * Gives every participant its kinematic state back and empties the store.
+     */
+    void clear ()
+    {
+        while (size > 0)
+        {
+            remove(owners[size - 1]);
+        }
+        hooked.clear();
+        unattached.clear();
+    }
+
+    /**
+     * Records the extents of the collision shape in slot i, rotated by the slot's rotation.
+     */
+    void setExtents (int i, CollisionShape shape)
+    {
+        shape.rotatedExtents(Math.cos(rotation[i]), Math.sin(rotation[i]), extents);
+        lowX[i] = extents[0];
+        lowY[i] = extents[1];
+        highX[i] = extents[2];
+        highY[i] = extents[3];
+    }
+
+    /**
+     * Moves every unexpired participant through one tick of the clock. The motion is applied in parallel by mover if
+     * it is not null and there are enough participants.
+     */
+    void move (ParallelMover mover)
+    {
+        for (int i = 0; i < hooked.size(); i++)
+        {
+            Participant p = hooked.get(i);
+            if (!p.isExpired())
+            {
+                p.beforeMove();
+            }
+        }
+
+        tick++;
+        if (mover != null && mover.worthwhile(size))
+        {
+            mover.integrate(this);
+        }
+        else
+        {
+            integrate(0, size);
+        }
+
+        for (int i = 0; i < hooked.size(); i++)
+        {
+            Participant p = hooked.get(i);
+            if (!p.isExpired())
+            {
+                p.afterMove();
+            }
+        }
+        for (int i = 0; i < unattached.size(); i++)
+        {
+            Participant p = unattached.get(i);
+            if (!p.isExpired())
+            {
+                p.move();
+            }
+        }
+    }
+
+    /**
+     * Applies the velocity in slots from up to but not including to, records the bounding boxes, and wraps the
+     * participants that have gone far enough off the screen to the other side. The wrap takes effect next time.
+     */
+    void integrate (int from, int to)
+    {
+        for (int i = from; i < to; i++)
+        {
+            lastBorderX[i] = borderX[i];
+            lastBorderY[i] = borderY[i];
+            double nx = x[i] + speedX[i];
+            double ny = y[i] + speedY[i];
+            borderX[i] = nx;
+            borderY[i] = ny;
+
+            double x0 = nx + lowX[i], x1 = nx + highX[i];
+            double y0 = ny + lowY[i], y1 = ny + highY[i];
+            minX[i] = x0;
+            minY[i] = y0;
+            maxX[i] = x1;
+            maxY[i] = y1;
+            if (x1 < 0)
+            {
+                nx += SIZE + (x1 - x0);
+            }
+            else if (x0 >= SIZE)
+            {
+                nx += -SIZE - (x1 - x0);
+            }
+            if (y1 < 0)
+            {
+                ny += SIZE + (y1 - y0);
+            }
+            else if (y0 >= SIZE)
+            {
+                ny += -SIZE - (y1 - y0);
+            }
+            x[i] = nx;
+            y[i] = ny;
+        }
+    }
+}
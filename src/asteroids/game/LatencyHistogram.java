@@ -0,0 +1,157 @@
+package asteroids.game;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in nanoseconds in buckets whose width grows with the value, as an HDR histogram does: values below
+ * 32 each have a bucket of their own, and every power of two above that is split into 32 buckets. Any value is thus
+ * known to within about 3%, from a nanosecond up to centuries, in a fixed array of under two thousand counts.
+ *
+ * Only one thread may record into a histogram, but any thread may read it while it does. Recording takes no lock
+ * and allocates nothing; a reader may see the counts of a recording in progress in some buckets and not yet in others.
+ */
+class LatencyHistogram
+{
+    /** Number of bits of precision within each power of two */
+    private final static int PRECISION = 5;
+
+    /** Number of buckets in each power of two */
+    private final static int SUB_BUCKETS = 1 << PRECISION;
+
+    /** Number of buckets, enough for any non-negative long */
+    private final static int BUCKETS = (64 - PRECISION) * SUB_BUCKETS;
+
+    /** Positions in totals */
+    private final static int COUNT = 0, SUM = 1, MAX = 2;
+
+    /** The count in each bucket */
+    private final AtomicLongArray counts;
+
+    /** Number of values, their sum and the largest of them, written only by the recording thread */
+    private final AtomicLongArray totals;
+
+    /**
+     * Creates an empty histogram.
+     */
+    LatencyHistogram ()
+    {
+        counts = new AtomicLongArray(BUCKETS);
+        totals = new AtomicLongArray(3);
+    }
+
+    /**
+     * Returns the bucket that holds the value, which must not be negative.
+     */
+    static int bucketOf (long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - PRECISION;
+        return ((shift + 1) << PRECISION) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Returns the smallest value that falls in the bucket.
+     */
+    static long lowestIn (int bucket)
+    {
+        if (bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int shift = (bucket >> PRECISION) - 1;
+        return (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+    }
+
+    /**
+     * Counts a value. Negative values count as 0. Only the recording thread may call this.
+     */
+    void record (long value)
+    {
+        value = Math.max(0, value);
+        int bucket = bucketOf(value);
+        counts.lazySet(bucket, counts.get(bucket) + 1);
+        totals.lazySet(COUNT, totals.get(COUNT) + 1);
+        totals.lazySet(SUM, totals.get(SUM) + value);
+        if (value > totals.get(MAX))
+        {
+            totals.lazySet(MAX, value);
+        }
+    }
+
+    /**
+     * Returns the number of values counted
+     */
+    long getCount ()
+    {
+        return totals.get(COUNT);
+    }
+
+    /**
+     * Returns the sum of the values counted
+     */
+    long getSum ()
+    {
+        return totals.get(SUM);
+    }
+
+    /**
+     * Returns the largest value counted, or 0 if there are none
+     */
+    long getMax ()
+    {
+        return totals.get(MAX);
+    }
+
+    /**
+     * Returns, for each of the limits (which must be in increasing order), the number of values counted that are no
+     * larger than it, to within the precision of the buckets, followed by the number of values counted. Each bucket is
+     * read once, so the numbers are consistent with one another even while values are being recorded.
+     */
+    long[] countAtMost (long[] limits)
+    {
+        long[] result = new long[limits.length + 1];
+        long total = 0;
+        int next = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            while (next < limits.length && bucketOf(Math.max(0, limits[next])) < i)
+            {
+                result[next++] = total;
+            }
+            total += counts.get(i);
+        }
+        while (next < limits.length)
+        {
+            result[next++] = total;
+        }
+        result[limits.length] = total;
+        return result;
+    }
+
+    /**
+     * Returns a value that the given fraction (between 0 and 1) of the values counted are no larger than, to within
+     * the precision of the buckets, or 0 if there are none.
+     */
+    long getPercentile (double fraction)
+    {
+        long count = getCount();
+        if (count == 0)
+        {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += counts.get(i);
+            if (seen >= rank)
+            {
+                return Math.min(getMax(), i + 1 < BUCKETS ? lowestIn(i + 1) - 1 : Long.MAX_VALUE);
+            }
+        }
+        return getMax();
+    }
+}
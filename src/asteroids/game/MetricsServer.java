@@ -0,0 +1,176 @@
+package asteroids.game;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToLongFunction;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves the TickMetrics of one or more games at /metrics on the loopback interface, in the Prometheus text format.
+ * Each phase of a move becomes a histogram of seconds, and the counts become counters and gauges, all labelled with the
+ * name of the game's session. Only programs on the same machine can connect.
+ */
+public class MetricsServer
+{
+    /** Upper bounds of the histogram buckets in nanoseconds: powers of two from 1 microsecond to about 1 second */
+    private final static long[] BOUNDS = new long[21];
+
+    static
+    {
+        for (int i = 0; i < BOUNDS.length; i++)
+        {
+            BOUNDS[i] = 1000L << i;
+        }
+    }
+
+    /** The HTTP server */
+    private final HttpServer server;
+
+    /** The metrics of each session, by name */
+    private final Map<String, TickMetrics> sessions;
+
+    /**
+     * Creates a server that will listen on the given port of the loopback interface once started. A port of 0 picks
+     * a free port.
+     */
+    public MetricsServer (int port) throws IOException
+    {
+        sessions = new ConcurrentSkipListMap<String, TickMetrics>();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::respond);
+    }
+
+    /**
+     * Serves the metrics of a session under the given name from now on.
+     */
+    public void add (String session, TickMetrics metrics)
+    {
+        sessions.put(session, metrics);
+    }
+
+    /**
+     * Stops serving the metrics of the named session.
+     */
+    public void remove (String session)
+    {
+        sessions.remove(session);
+    }
+
+    /**
+     * Starts serving requests on a thread of the server's own.
+     */
+    public void start ()
+    {
+        server.start();
+    }
+
+    /**
+     * Stops serving requests.
+     */
+    public void stop ()
+    {
+        server.stop(0);
+    }
+
+    /**
+     * Returns the port on which the server listens
+     */
+    public int getPort ()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Answers a request with the metrics.
+     */
+    private void respond (HttpExchange exchange) throws IOException
+    {
+        byte[] body = format().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Returns the metrics of every session in the Prometheus text format.
+     */
+    String format ()
+    {
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP asteroids_phase_seconds Time taken by each phase of a move.\n");
+        out.append("# TYPE asteroids_phase_seconds histogram\n");
+        for (Map.Entry<String, TickMetrics> session : sessions.entrySet())
+        {
+            for (int phase = 0; phase < TickMetrics.PHASES.length; phase++)
+            {
+                LatencyHistogram histogram = session.getValue().histogram(phase);
+                String labels = "session=\"" + escape(session.getKey()) + "\",phase=\"" + TickMetrics.PHASES[phase]
+                                + "\"";
+                long[] counts = histogram.countAtMost(BOUNDS);
+                for (int i = 0; i < BOUNDS.length; i++)
+                {
+                    out.append(String.format(Locale.ROOT, "asteroids_phase_seconds_bucket{%s,le=\"%s\"} %d\n", labels,
+                            Double.toString(BOUNDS[i] / 1e9), counts[i]));
+                }
+                out.append(String.format(Locale.ROOT, "asteroids_phase_seconds_bucket{%s,le=\"+Inf\"} %d\n", labels,
+                        counts[BOUNDS.length]));
+                out.append(String.format(Locale.ROOT, "asteroids_phase_seconds_sum{%s} %s\n", labels,
+                        Double.toString(histogram.getSum() / 1e9)));
+                out.append(String.format(Locale.ROOT, "asteroids_phase_seconds_count{%s} %d\n", labels,
+                        counts[BOUNDS.length]));
+            }
+        }
+
+        out.append("# HELP asteroids_participants Active participants of each type as of the end of the last move.\n");
+        out.append("# TYPE asteroids_participants gauge\n");
+        for (Map.Entry<String, TickMetrics> session : sessions.entrySet())
+        {
+            for (String type : session.getValue().getParticipantTypes())
+            {
+                out.append(String.format(Locale.ROOT, "asteroids_participants{session=\"%s\",type=\"%s\"} %d\n",
+                        escape(session.getKey()), type, session.getValue().getParticipantCount(type)));
+            }
+        }
+
+        counter(out, "asteroids_pairs_tested_total", "Candidate pairs of participants tested for collisions.",
+                TickMetrics::getPairsTested);
+        counter(out, "asteroids_collisions_resolved_total", "Collisions that participants were told about.",
+                TickMetrics::getCollisionsResolved);
+        counter(out, "asteroids_timers_scheduled_total", "Countdown timers scheduled.",
+                TickMetrics::getTimersScheduled);
+        return out.toString();
+    }
+
+    /**
+     * Appends a counter with the given name and help text, whose value for each session is read from its metrics.
+     */
+    private void counter (StringBuilder out, String name, String help, ToLongFunction<TickMetrics> value)
+    {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        for (Map.Entry<String, TickMetrics> session : sessions.entrySet())
+        {
+            out.append(String.format(Locale.ROOT, "%s{session=\"%s\"} %d\n", name, escape(session.getKey()),
+                    value.applyAsLong(session.getValue())));
+        }
+    }
+
+    /**
+     * Escapes a label value as the Prometheus text format requires.
+     */
+    private static String escape (String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
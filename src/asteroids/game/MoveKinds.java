@@ -0,0 +1,64 @@
+package asteroids.game;
+
+import java.util.HashMap;
+
+/**
+ * Records which of the moving methods each Participant class overrides, so that the move phase can be split into a
+ * pass of beforeMove calls, the motion itself, and a pass of afterMove calls.
+ */
+class MoveKinds
+{
+    /** The class overrides move itself, so its participants must be moved one at a time */
+    final static int MOVE = 1;
+
+    /** The class overrides beforeMove */
+    final static int BEFORE = 2;
+
+    /** The class overrides afterMove */
+    final static int AFTER = 4;
+
+    /** For each Participant class seen, a combination of the bits above */
+    private HashMap<Class<?>, Integer> kinds;
+
+    /**
+     * Creates an empty record.
+     */
+    MoveKinds ()
+    {
+        kinds = new HashMap<Class<?>, Integer>();
+    }
+
+    /**
+     * Returns which of move, beforeMove and afterMove the class overrides.
+     */
+    int of (Class<?> c)
+    {
+        Integer kind = kinds.get(c);
+        if (kind == null)
+        {
+            kind = (overrides(c, "move") ? MOVE : 0) | (overrides(c, "beforeMove") ? BEFORE : 0)
+                   | (overrides(c, "afterMove") ? AFTER : 0);
+            kinds.put(c, kind);
+        }
+        return kind;
+    }
+
+    /**
+     * Reports whether the class or one of its superclasses below Participant declares the method with no parameters.
+     */
+    private static boolean overrides (Class<?> c, String name)
+    {
+        for (Class<?> k = c; k != Participant.class && k != null; k = k.getSuperclass())
+        {
+            try
+            {
+                k.getDeclaredMethod(name);
+                return true;
+            }
+            catch (NoSuchMethodException e)
+            {
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package asteroids.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the narrowphase of a collision pass on a ForkJoinPool, separately from dealing with the collisions it finds.
+ * The sorted candidate pairs are split into ranges and each task records, for the pairs in its range only, the time
+ * at which they collided or -1. Since the ranges are taken from the sorted list, putting the results back together
+ * needs no merge: they are already in the order in which the sequential loop visits the pairs. The collisions are
+ * then dealt with on the calling thread in that order.
+ *
+ * Testing a pair with the separating axis test only reads the participants, whose collision shapes were all
+ * positioned when the bodies were gathered. The Area test builds and caches borders on demand, so pairs in which
+ * either shape can only be tested as an Area are tested on the calling thread before the tasks are started, and the
+ * tasks skip them. When the Area test is chosen for every pair, the detector is not used at all.
+ */
+class ParallelDetector
+{
+    /** The smallest number of pairs handled by a single task */
+    private final static int MIN_LEAF = 128;
+
+    /** The threads that do the work */
+    private ForkJoinPool pool;
+
+    /** The smallest number of candidate pairs worth testing in parallel */
+    private int threshold;
+
+    /** The time of impact of each pair, or -1 if the pair did not collide */
+    private double[] times;
+
+    /**
+     * Creates a detector that uses the pool once there are at least threshold candidate pairs.
+     */
+    ParallelDetector (ForkJoinPool pool, int threshold)
+    {
+        this.pool = pool;
+        this.threshold = threshold;
+        times = new double[256];
+    }
+
+    /**
+     * Reports whether n candidate pairs are enough to be worth testing in parallel.
+     */
+    boolean worthwhile (int n)
+    {
+        return n >= threshold;
+    }
+
+    /**
+     * Tests every sorted candidate pair and returns the time of impact of each one, or -1 for pairs that did not
+     * collide. Pairs that need the Area test are tested first on the calling thread, and the rest on the pool. The
+     * array is reused by the next call.
+     */
+    double[] detect (CollisionBodies bodies, CollisionPairs pairs, boolean continuous)
+    {
+        int n = pairs.size();
+        if (times.length < n)
+        {
+            times = new double[Math.max(n, 2 * times.length)];
+        }
+        for (int k = 0; k < n; k++)
+        {
+            Participant p1 = bodies.bodies[pairs.first(k)];
+            Participant p2 = bodies.bodies[pairs.second(k)];
+            if (p1.needsArea() || p2.needsArea())
+            {
+                times[k] = timeOfImpact(p1, p2, false, continuous);
+            }
+        }
+        int leaf = Math.max(MIN_LEAF, n / (4 * pool.getParallelism()));
+        pool.invoke(new Task(bodies, pairs, continuous, times, 0, n, leaf));
+        return times;
+    }
+
+    /**
+     * Returns the fraction of the last tick at which p1 and p2 collided, or -1 if they did not. The Area test is
+     * used if area is true; otherwise points are tested along their whole move if continuous is true.
+     */
+    static double timeOfImpact (Participant p1, Participant p2, boolean area, boolean continuous)
+    {
+        if (area)
+        {
+            return p1.overlapsArea(p2) ? 1 : -1;
+        }
+        else if (continuous)
+        {
+            return p1.timeOfImpact(p2);
+        }
+        else
+        {
+            return p1.overlaps(p2) ? 1 : -1;
+        }
+    }
+
+    /**
+     * Tests a range of the sorted pairs.
+     */
+    @SuppressWarnings("serial")
+    private static class Task extends RecursiveAction
+    {
+        /** The bodies that the pairs refer to */
+        private CollisionBodies bodies;
+
+        /** The sorted pairs */
+        private CollisionPairs pairs;
+
+        /** True if points are tested along their whole move */
+        private boolean continuous;
+
+        /** Where the results go */
+        private double[] times;
+
+        /** The range of pairs to test, from up to but not including to */
+        private int from, to;
+
+        /** Ranges at most this long are tested without splitting */
+        private int leaf;
+
+        /**
+         * Creates a task that tests the given range.
+         */
+        Task (CollisionBodies bodies, CollisionPairs pairs, boolean continuous, double[] times, int from, int to,
+                int leaf)
+        {
+            this.bodies = bodies;
+            this.pairs = pairs;
+            this.continuous = continuous;
+            this.times = times;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute ()
+        {
+            if (to - from <= leaf)
+            {
+                for (int k = from; k < to; k++)
+                {
+                    Participant p1 = bodies.bodies[pairs.first(k)];
+                    Participant p2 = bodies.bodies[pairs.second(k)];
+                    if (!p1.needsArea() && !p2.needsArea())
+                    {
+                        times[k] = timeOfImpact(p1, p2, false, continuous);
+                    }
+                }
+            }
+            else
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Task(bodies, pairs, continuous, times, from, middle, leaf),
+                        new Task(bodies, pairs, continuous, times, middle, to, leaf));
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package asteroids.game;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies the motion of the move phase on a ForkJoinPool once there are enough participants to make it
+ * worthwhile. Only the motion itself runs in parallel: positioning each participant touches nothing but that
+ * participant. The beforeMove and afterMove hooks, and any move overrides, are still called one at a time on the
+ * calling thread in the usual order, so hooks that reach into the Controller stay safe. Each participant's motion is
+ * computed by exactly the same code as in the sequential mode, so the results are identical.
+ */
+class ParallelMover
+{
+    /** The smallest number of participants handled by a single task */
+    private final static int MIN_LEAF = 256;
+
+    /** The threads that do the work */
+    private ForkJoinPool pool;
+
+    /** The smallest number of participants worth moving in parallel */
+    private int threshold;
+
+    /**
+     * Creates a mover that uses the pool once there are at least threshold participants.
+     */
+    ParallelMover (ForkJoinPool pool, int threshold)
+    {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Reports whether n participants are enough to be worth moving in parallel.
+     */
+    boolean worthwhile (int n)
+    {
+        return n >= threshold;
+    }
+
+    /**
+     * Applies the motion to the first n participants in the array, none of which is in a KinematicStore.
+     */
+    void integrate (Participant[] participants, int n)
+    {
+        pool.invoke(new ParticipantTask(participants, 0, n, leafSize(n)));
+    }
+
+    /**
+     * Applies the motion to every slot of the store.
+     */
+    void integrate (KinematicStore store)
+    {
+        pool.invoke(new StoreTask(store, 0, store.size, leafSize(store.size)));
+    }
+
+    /**
+     * Returns how many of n participants each task should handle, so that every thread gets a few tasks to balance
+     * the load.
+     */
+    private int leafSize (int n)
+    {
+        return Math.max(MIN_LEAF, n / (4 * pool.getParallelism()));
+    }
+
+    /**
+     * Moves a range of an array of participants.
+     */
+    @SuppressWarnings("serial")
+    private static class ParticipantTask extends RecursiveAction
+    {
+        /** The participants */
+        private Participant[] participants;
+
+        /** The range to move, from up to but not including to */
+        private int from, to;
+
+        /** Ranges at most this long are moved without splitting */
+        private int leaf;
+
+        /**
+         * Creates a task that moves the given range.
+         */
+        ParticipantTask (Participant[] participants, int from, int to, int leaf)
+        {
+            this.participants = participants;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute ()
+        {
+            if (to - from <= leaf)
+            {
+                for (int i = from; i < to; i++)
+                {
+                    participants[i].integrate();
+                }
+            }
+            else
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParticipantTask(participants, from, middle, leaf),
+                        new ParticipantTask(participants, middle, to, leaf));
+            }
+        }
+    }
+
+    /**
+     * Moves a range of the slots of a KinematicStore.
+     */
+    @SuppressWarnings("serial")
+    private static class StoreTask extends RecursiveAction
+    {
+        /** The store */
+        private KinematicStore store;
+
+        /** The range of slots to move, from up to but not including to */
+        private int from, to;
+
+        /** Ranges at most this long are moved without splitting */
+        private int leaf;
+
+        /**
+         * Creates a task that moves the given range.
+         */
+        StoreTask (KinematicStore store, int from, int to, int leaf)
+        {
+            this.store = store;
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute ()
+        {
+            if (to - from <= leaf)
+            {
+                store.integrate(from, to);
+            }
+            else
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new StoreTask(store, from, middle, leaf), new StoreTask(store, middle, to, leaf));
+            }
+        }
+    }
+}
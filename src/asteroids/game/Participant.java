@@ -15,27 +15,108 @@ import java.awt.geom.*;
  */
 public abstract class Participant
 {
-    /** Speed in pixels per second in the horizontal (x) and vertical (y) directions */
+    /** Speed in pixels per second in the horizontal (x) and vertical (y) directions, when not in a store */
     private double speedX, speedY;
 
-    /** Amount by which this Participant's outline is rotated in radians */
+    /** Amount by which this Participant's outline is rotated in radians, when not in a store */
     private double rotation;
 
-    /** Current x-coordinate of the Participant's center */
+    /** Current x-coordinate of the Participant's center, when not in a store */
     private double x;
 
-    /** Current y-coordinate of the Participant's center */
+    /** Current y-coordinate of the Participant's center, when not in a store */
     private double y;
 
-    /** Border of the Participant that is used for drawing */
+    /** The KinematicStore that holds this Participant's position, velocity and rotation, or null */
+    KinematicStore store;
+
+    /** Position of this Participant in its KinematicStore */
+    int slot;
+
+    /** The store tick as of which the border and collision shape were last positioned */
+    private int placedTick;
+
+    /** Border of the Participant as of the last move, built only when the Area test asks for it */
     private Shape border;
 
+    /** Reused to build the border */
+    private AffineTransform transform;
+
     /** True if the Participant is expired */
     private boolean expired;
     
     /** True if the participant is invulnerable*/
     protected boolean isInvulnerable;
 
+    /** Bounding box of the border, as of the last move */
+    private double minX, minY, maxX, maxY;
+
+    /** Position of this Participant in the current collision pass (maintained by ParticipantState) */
+    int collisionIndex;
+
+    /** The ParticipantState that this Participant has been added to, or null */
+    ParticipantState owner;
+
+    /** Handle given to this Participant by the ParticipantState that it was last added to */
+    long handle;
+
+    /** Index of this Participant's collision layer, recorded when it is added to a ParticipantState */
+    int layerIndex;
+
+    /** Which of the moving methods this Participant's class overrides, as a combination of the MoveKinds bits */
+    int moveKind;
+
+    /** The pool that this Participant goes back to once it is removed, or null */
+    ParticipantPool<?> pool;
+
+    /** Number of times this Participant has been reused by a pool */
+    int generation;
+
+    /** The most recent of the timers constructed before this Participant was added, which start when it is added */
+    ParticipantCountdownTimer waitingTimers;
+
+    /** The outline from which the collision shape was computed */
+    private Shape collisionOutline;
+
+    /** The outline broken into convex pieces */
+    private CollisionShape collisionShape;
+
+    /** The vertices of the collision shape, as positioned by the last move */
+    private double[] world;
+
+    /** The vertices of the collision shape rotated by placedRotation, but not translated */
+    private double[] rotated;
+
+    /** True if rotated and extents belong to the collision shape's rotations done in advance and must not be changed */
+    private boolean shared;
+
+    /** The rotation as of the last move, or NaN if the rotated vertices and extents need to be computed again */
+    private double placedRotation;
+
+    /** The cosine and sine of placedRotation */
+    private double cos, sin;
+
+    /** Extents of the outline rotated by placedRotation, as smallest x, smallest y, largest x and largest y */
+    private double[] extents;
+
+    /** Position of the center of the border as of the last move */
+    private double borderX, borderY;
+
+    /** Position of the center of the border as of the move before last */
+    private double lastBorderX, lastBorderY;
+
+    /** True if collisions treat this Participant as a point */
+    private boolean pointLike;
+
+    /** Position of the point, when collisions treat this Participant as a point */
+    private double pointX, pointY;
+
+    /** Position of the point as of the move before last, used for continuous collisions */
+    private double lastPointX, lastPointY;
+
+    /** Fraction of the last tick at which the collision being reported took place */
+    private double timeOfImpact;
+
     /**
      * Constructs an active Participant with no velocity, rotation, or border.
      */
@@ -47,7 +128,31 @@ public abstract class Participant
         x = 0;
         y = 0;
         border = null;
+        placedRotation = Double.NaN;
+        expired = false;
+    }
+
+    /**
+     * Makes this participant, which has expired and been removed, as good as new for reuse by a pool. Its position,
+     * velocity and rotation are zero.
+     */
+    void revive ()
+    {
+        speedX = 0;
+        speedY = 0;
+        rotation = 0;
+        x = 0;
+        y = 0;
+        borderX = 0;
+        borderY = 0;
+        border = null;
+        collisionOutline = null;
+        placedRotation = Double.NaN;
+        timeOfImpact = 0;
+        waitingTimers = null;
+        isInvulnerable = false;
         expired = false;
+        generation++;
     }
 
     /**
@@ -66,7 +171,14 @@ public abstract class Participant
      */
     private void setExpired ()
     {
-        expired = true;
+        if (!expired)
+        {
+            expired = true;
+            if (owner != null)
+            {
+                owner.participantExpired(this);
+            }
+        }
     }
 
     /**
@@ -83,8 +195,7 @@ public abstract class Participant
     public void setVelocity (double speed, double direction)
     {
         direction = normalize(direction);
-        speedX = Math.cos(direction) * speed;
-        speedY = Math.sin(direction) * speed;
+        setSpeeds(Math.cos(direction) * speed, Math.sin(direction) * speed);
     }
 
     /**
@@ -94,8 +205,7 @@ public abstract class Participant
     {
         direction = normalize(direction);
         double speed = getSpeed();
-        speedX = Math.cos(direction) * speed;
-        speedY = Math.sin(direction) * speed;
+        setSpeeds(Math.cos(direction) * speed, Math.sin(direction) * speed);
     }
 
     /**
@@ -104,8 +214,7 @@ public abstract class Participant
     public void setSpeed (double speed)
     {
         double direction = getDirection();
-        speedX = Math.cos(direction) * speed;
-        speedY = Math.sin(direction) * speed;
+        setSpeeds(Math.cos(direction) * speed, Math.sin(direction) * speed);
     }
 
     /**
@@ -113,7 +222,7 @@ public abstract class Participant
      */
     public double getDirection ()
     {
-        return normalize(Math.atan2(speedY, speedX));
+        return normalize(Math.atan2(getSpeedY(), getSpeedX()));
     }
 
     /**
@@ -121,15 +230,58 @@ public abstract class Participant
      */
     public double getSpeed ()
     {
+        double speedX = getSpeedX();
+        double speedY = getSpeedY();
         return Math.sqrt(speedX * speedX + speedY * speedY);
     }
 
+    /**
+     * Returns the horizontal speed, in pixels per frame
+     */
+    private double getSpeedX ()
+    {
+        return store == null ? speedX : store.speedX[slot];
+    }
+
+    /**
+     * Returns the vertical speed, in pixels per frame
+     */
+    private double getSpeedY ()
+    {
+        return store == null ? speedY : store.speedY[slot];
+    }
+
+    /**
+     * Sets the horizontal and vertical speeds, in pixels per frame
+     */
+    private void setSpeeds (double speedX, double speedY)
+    {
+        if (store == null)
+        {
+            this.speedX = speedX;
+            this.speedY = speedY;
+        }
+        else
+        {
+            store.speedX[slot] = speedX;
+            store.speedY[slot] = speedY;
+        }
+    }
+
     /**
      * Sets the rotation (in radians) of this Participant
      */
     public void setRotation (double radians)
     {
-        rotation = normalize(radians);
+        if (store == null)
+        {
+            rotation = normalize(radians);
+        }
+        else
+        {
+            store.rotation[slot] = normalize(radians);
+            outlineChanged();
+        }
     }
 
     /**
@@ -137,7 +289,7 @@ public abstract class Participant
      */
     public void rotate (double delta)
     {
-        rotation = normalize(rotation + delta);
+        setRotation(getRotation() + delta);
     }
 
     /**
@@ -145,7 +297,16 @@ public abstract class Participant
      */
     public double getRotation ()
     {
-        return rotation;
+        return store == null ? rotation : store.rotation[slot];
+    }
+
+    /**
+     * Returns the multiple of 2 Pi / orientations that is closest to the angle, between 0 and 2 Pi
+     */
+    public static double quantize (double angle, int orientations)
+    {
+        double step = 2 * Math.PI / orientations;
+        return normalize(Math.round(angle / step) * step);
     }
 
     /**
@@ -171,15 +332,14 @@ public abstract class Participant
     public void accelerate (double delta)
     {
         // Compute new speeds
-        speedX += delta * Math.cos(rotation);
-        speedY += delta * Math.sin(rotation);
+        double rotation = getRotation();
+        setSpeeds(getSpeedX() + delta * Math.cos(rotation), getSpeedY() + delta * Math.sin(rotation));
 
         // Enforce the speed limit
         if (getSpeed() > SPEED_LIMIT)
         {
             double direction = getDirection();
-            speedX = SPEED_LIMIT * Math.cos(direction);
-            speedY = SPEED_LIMIT * Math.sin(direction);
+            setSpeeds(SPEED_LIMIT * Math.cos(direction), SPEED_LIMIT * Math.sin(direction));
         }
     }
 
@@ -188,13 +348,15 @@ public abstract class Participant
      */
     public void applyFriction (double coefficientOfFriction)
     {
+        double speedX = getSpeedX();
+        double speedY = getSpeedY();
         if (speedX != 0 || speedY != 0)
         {
             double speed = getSpeed();
             double deltaX = coefficientOfFriction * speedX / speed;
             double deltaY = coefficientOfFriction * speedY / speed;
-            speedX = (Math.abs(deltaX) > Math.abs(speedX)) ? 0 : (speedX + deltaX);
-            speedY = (Math.abs(deltaY) > Math.abs(speedY)) ? 0 : (speedY + deltaY);
+            setSpeeds((Math.abs(deltaX) > Math.abs(speedX)) ? 0 : (speedX + deltaX),
+                    (Math.abs(deltaY) > Math.abs(speedY)) ? 0 : (speedY + deltaY));
         }
     }
 
@@ -203,8 +365,16 @@ public abstract class Participant
      */
     public void setPosition (double x, double y)
     {
-        this.x = x;
-        this.y = y;
+        if (store == null)
+        {
+            this.x = x;
+            this.y = y;
+        }
+        else
+        {
+            store.x[slot] = x;
+            store.y[slot] = y;
+        }
     }
 
     /**
@@ -212,7 +382,7 @@ public abstract class Participant
      */
     public double getX ()
     {
-        return x;
+        return store == null ? x : store.x[slot];
     }
 
     /**
@@ -220,7 +390,7 @@ public abstract class Participant
      */
     public double getY ()
     {
-        return y;
+        return store == null ? y : store.y[slot];
     }
 
     /**
@@ -231,6 +401,47 @@ public abstract class Participant
      */
     protected abstract Shape getOutline ();
 
+    /**
+     * Returns the collision shape for the outline, which is one that getOutline has returned. It is asked for only when
+     * the outline changes. By default a new shape is made each time. A participant whose outlines are shared with
+     * other participants should override this to return a shape made once for each outline, with
+     * {@link CollisionShape#create(Shape)} or {@link CollisionShape#oriented(Shape, int)}, and kept for as long as
+     * the outline is used.
+     */
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return CollisionShape.create(outline);
+    }
+
+    /**
+     * Reports whether this Participant is so small that collisions can treat it as a point (strictly, as a disk the
+     * width of its outline). Tiny projectiles should override this to return true, because testing a point against an
+     * outline is much cheaper than testing two outlines.
+     */
+    protected boolean isPointLike ()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the collision layer (one of the constants in {@link CollisionLayer}) that this Participant belongs to.
+     * Participants that do not override this are on the OTHER layer.
+     */
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.OTHER;
+    }
+
+    /**
+     * Returns the set of collision layers whose participants this Participant reacts to in collidedWith. Pairs in
+     * which neither participant reacts to the other are never tested for overlap. Participants that do not override
+     * this react to every layer.
+     */
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.ALL;
+    }
+
     /**
      * Takes the appropriate action for a collision of this Participant with p.
      */
@@ -238,49 +449,399 @@ public abstract class Participant
 
     /**
      * This method is called when a {@link asteroids.game.ParticipantCountdownTimer} that was constructed for this
-     * Participant completes its countdown, so long as this Participant is not expired. The method should take
-     * appropriate action.
+     * Participant completes its countdown, so long as this Participant is not expired. The call is made on the thread
+     * that moves the participants, at the start of a move. The method should take appropriate action.
      */
     public void countdownComplete (Object payload)
     {
     }
 
     /**
-     * Moves this participant to reflect one tick of the clock.
+     * Called when the outline returned by getOutline changes. A participant whose outline can change, like a ship
+     * showing its flame, must call this so that a KinematicStore keeps its extents up to date.
+     */
+    protected void outlineChanged ()
+    {
+        if (store != null)
+        {
+            Shape original = getOutline();
+            useOutline(original);
+            store.setExtents(slot, collisionShape);
+            placedTick = store.tick - 1;
+        }
+    }
+
+    /**
+     * Called at the start of every move, before the velocity is applied. Participants that change their own velocity
+     * each tick, for example by imposing friction, should do it here rather than override move.
+     */
+    protected void beforeMove ()
+    {
+    }
+
+    /**
+     * Called at the end of every move, after the velocity has been applied and the participant has been wrapped around
+     * the screen.
+     */
+    protected void afterMove ()
+    {
+    }
+
+    /**
+     * Moves this participant to reflect one tick of the clock. Subclasses should override beforeMove or afterMove
+     * rather than this method, so that they can be moved by a KinematicStore.
      */
     public void move ()
     {
-        // Get the original outline
-        Shape original = getOutline();
+        beforeMove();
+        if (store != null)
+        {
+            store.integrate(slot, slot + 1);
+            placedTick = store.tick - 1;
+            ensurePlaced();
+        }
+        else
+        {
+            integrate();
+        }
+        afterMove();
+    }
 
+    /**
+     * Applies the velocity, positions the collision shape, and wraps the participant around the screen. This touches
+     * nothing but this participant, so different participants can be integrated at the same time. Once the outline
+     * and rotation have been seen, it allocates nothing.
+     */
+    void integrate ()
+    {
         // Change the position to reflect participant motion
+        lastBorderX = borderX;
+        lastBorderY = borderY;
         x += speedX;
         y += speedY;
+        if (collisionOutline == null)
+        {
+            // There is no earlier position to draw or sweep from
+            lastBorderX = x;
+            lastBorderY = y;
+        }
 
         // Translate and rotate the original to reflect the accumulated motion
-        AffineTransform trans = AffineTransform.getTranslateInstance(x, y);
-        trans.concatenate(AffineTransform.getRotateInstance(rotation));
-        border = trans.createTransformedShape(original);
+        place(getOutline(), x, y, rotation);
 
         // If the element has gone sufficiently far out of bounds, move it to
         // the other side of the screen. This change will take effect next time.
-        Rectangle2D bounds = border.getBounds2D();
-        if (bounds.getMaxX() < 0)
+        minX = x + extents[0];
+        minY = y + extents[1];
+        maxX = x + extents[2];
+        maxY = y + extents[3];
+        if (maxX < 0)
+        {
+            x += SIZE + (maxX - minX);
+        }
+        if (minX >= SIZE)
+        {
+            x += -SIZE - (maxX - minX);
+        }
+        if (maxY < 0)
+        {
+            y += SIZE + (maxY - minY);
+        }
+        if (minY >= SIZE)
+        {
+            y += -SIZE - (maxY - minY);
+        }
+    }
+
+    /**
+     * Positions the collision shape of a participant in a KinematicStore, if that has not been done since the store
+     * last moved it.
+     */
+    private void ensurePlaced ()
+    {
+        if (store != null && placedTick != store.tick)
+        {
+            placedTick = store.tick;
+            lastBorderX = store.lastBorderX[slot];
+            lastBorderY = store.lastBorderY[slot];
+            place(getOutline(), store.borderX[slot], store.borderY[slot], store.rotation[slot]);
+        }
+    }
+
+    /**
+     * Makes original the outline that the collision shape comes from. Returns true if it was not already.
+     */
+    private boolean useOutline (Shape original)
+    {
+        if (original == collisionOutline)
+        {
+            return false;
+        }
+        collisionOutline = original;
+        collisionShape = getCollisionShape(original);
+        pointLike = isPointLike();
+        int length = collisionShape.vertices.length;
+        if (!pointLike && (world == null || world.length < length))
+        {
+            world = new double[length];
+        }
+        placedRotation = Double.NaN;
+        return true;
+    }
+
+    /**
+     * Positions the collision shape for the outline at (x,y) with the given rotation. The vertices are rotated again
+     * only if the rotation or the outline has changed since the last time; otherwise they are just translated.
+     */
+    private void place (Shape original, double x, double y, double rotation)
+    {
+        border = null;
+        boolean changed = useOutline(original);
+        if (rotation != placedRotation)
+        {
+            placedRotation = rotation;
+            int orientation = collisionShape.orientationOf(rotation);
+            if (orientation >= 0)
+            {
+                cos = collisionShape.orientedCos[orientation];
+                sin = collisionShape.orientedSin[orientation];
+                rotated = collisionShape.orientedVertices[orientation];
+                extents = collisionShape.orientedExtents[orientation];
+                shared = true;
+            }
+            else
+            {
+                cos = Math.cos(rotation);
+                sin = Math.sin(rotation);
+                int length = collisionShape.vertices.length;
+                if (shared || extents == null || (!pointLike && rotated.length < length))
+                {
+                    rotated = new double[length];
+                    extents = new double[4];
+                    shared = false;
+                }
+                collisionShape.rotatedExtents(cos, sin, extents);
+            }
+            if (!pointLike && !shared)
+            {
+                double[] local = collisionShape.vertices;
+                for (int i = 0; i < local.length; i += 2)
+                {
+                    rotated[i] = cos * local[i] - sin * local[i + 1];
+                    rotated[i + 1] = sin * local[i] + cos * local[i + 1];
+                }
+            }
+        }
+
+        borderX = x;
+        borderY = y;
+        if (pointLike)
         {
-            x += SIZE + (bounds.getMaxX() - bounds.getMinX());
+            // Remember where the point was, unless this is the first move or the point has wrapped around
+            double offsetX = cos * collisionShape.pointX - sin * collisionShape.pointY;
+            double offsetY = sin * collisionShape.pointX + cos * collisionShape.pointY;
+            pointX = x + offsetX;
+            pointY = y + offsetY;
+            lastPointX = lastBorderX + offsetX;
+            lastPointY = lastBorderY + offsetY;
+            if (changed || Math.abs(pointX - lastPointX) > SIZE / 2 || Math.abs(pointY - lastPointY) > SIZE / 2)
+            {
+                lastPointX = pointX;
+                lastPointY = pointY;
+            }
+            return;
         }
-        if (bounds.getMinX() >= SIZE)
+        int length = collisionShape.vertices.length;
+        for (int i = 0; i < length; i += 2)
         {
-            x += -SIZE - (bounds.getMaxX() - bounds.getMinX());
+            world[i] = x + rotated[i];
+            world[i + 1] = y + rotated[i + 1];
         }
-        if (bounds.getMaxY() < 0)
+    }
+
+    /**
+     * Returns the border as of the last move, building it if it has not been built since then. Only the Area test
+     * needs it.
+     */
+    private Shape getBorder ()
+    {
+        ensurePlaced();
+        if (border == null && collisionOutline != null)
+        {
+            if (transform == null)
+            {
+                transform = new AffineTransform();
+            }
+            transform.setToTranslation(borderX, borderY);
+            transform.rotate(placedRotation);
+            border = transform.createTransformedShape(collisionOutline);
+        }
+        return border;
+    }
+
+    /**
+     * Copies the position, velocity and rotation of this participant into slot i of the store, which takes them over.
+     */
+    void attach (KinematicStore store, int i)
+    {
+        this.store = store;
+        slot = i;
+        store.x[i] = x;
+        store.y[i] = y;
+        store.speedX[i] = speedX;
+        store.speedY[i] = speedY;
+        store.rotation[i] = rotation;
+        store.borderX[i] = x;
+        store.borderY[i] = y;
+        store.lastBorderX[i] = x;
+        store.lastBorderY[i] = y;
+        placedTick = store.tick - 1;
+        outlineChanged();
+    }
+
+    /**
+     * Takes the position, velocity and rotation of this participant back from its store.
+     */
+    void detach ()
+    {
+        ensurePlaced();
+        x = store.x[slot];
+        y = store.y[slot];
+        speedX = store.speedX[slot];
+        speedY = store.speedY[slot];
+        rotation = store.rotation[slot];
+        minX = store.minX[slot];
+        minY = store.minY[slot];
+        maxX = store.maxX[slot];
+        maxY = store.maxY[slot];
+        store = null;
+    }
+
+    /**
+     * Returns the smallest x-coordinate of the border as of the last move
+     */
+    double getMinX ()
+    {
+        return store == null ? minX : store.minX[slot];
+    }
+
+    /**
+     * Returns the smallest y-coordinate of the border as of the last move
+     */
+    double getMinY ()
+    {
+        return store == null ? minY : store.minY[slot];
+    }
+
+    /**
+     * Returns the largest x-coordinate of the border as of the last move
+     */
+    double getMaxX ()
+    {
+        return store == null ? maxX : store.maxX[slot];
+    }
+
+    /**
+     * Returns the largest y-coordinate of the border as of the last move
+     */
+    double getMaxY ()
+    {
+        return store == null ? maxY : store.maxY[slot];
+    }
+
+    /**
+     * Returns the x-coordinate of the center of the circle that bounds the collision shape as of the last move
+     */
+    double getCircleX ()
+    {
+        ensurePlaced();
+        return pointLike ? pointX : borderX;
+    }
+
+    /**
+     * Returns the y-coordinate of the center of the circle that bounds the collision shape as of the last move
+     */
+    double getCircleY ()
+    {
+        ensurePlaced();
+        return pointLike ? pointY : borderY;
+    }
+
+    /**
+     * Returns the radius of the circle that bounds the collision shape, which is infinite if the shape can only be
+     * tested as an Area
+     */
+    double getCircleRadius ()
+    {
+        ensurePlaced();
+        if (collisionShape.useArea)
         {
-            y += SIZE + (bounds.getMaxY() - bounds.getMinY());
+            return Double.POSITIVE_INFINITY;
         }
-        if (bounds.getMinY() >= SIZE)
+        return pointLike ? collisionShape.pointRadius : collisionShape.radius;
+    }
+
+    /**
+     * Reports whether the collision shape can only be tested as an Area. Such a test builds the borders of both
+     * participants on demand, so it must not run on more than one thread at a time.
+     */
+    boolean needsArea ()
+    {
+        ensurePlaced();
+        return collisionShape.useArea;
+    }
+
+    /**
+     * Reports whether this participant is a point that moved more than its own width during the last move, so that a
+     * test at the end of the move alone could miss something it passed through.
+     */
+    boolean isSwept ()
+    {
+        ensurePlaced();
+        if (!pointLike)
         {
-            y += -SIZE - (bounds.getMaxY() - bounds.getMinY());
+            return false;
         }
+        double dx = pointX - lastPointX;
+        double dy = pointY - lastPointY;
+        double width = 2 * collisionShape.pointRadius;
+        return dx * dx + dy * dy > width * width;
+    }
+
+    /**
+     * Returns the x-coordinate of the point as of the move before last
+     */
+    double getLastPointX ()
+    {
+        ensurePlaced();
+        return lastPointX;
+    }
+
+    /**
+     * Returns the y-coordinate of the point as of the move before last
+     */
+    double getLastPointY ()
+    {
+        ensurePlaced();
+        return lastPointY;
+    }
+
+    /**
+     * Returns the fraction (between 0 and 1) of the last tick at which the collision now being reported to
+     * collidedWith took place. It is 1 unless continuous collisions are enabled and a fast point-like participant hit
+     * something part way through its move.
+     */
+    public double getTimeOfImpact ()
+    {
+        return timeOfImpact;
+    }
+
+    /**
+     * Records the time of impact of the collision about to be reported.
+     */
+    void setTimeOfImpact (double time)
+    {
+        timeOfImpact = time;
     }
 
     /**
@@ -290,33 +851,196 @@ public abstract class Participant
      */
     public void transformPoint (Point2D.Double point)
     {
-        AffineTransform trans = AffineTransform.getTranslateInstance(x, y);
-        trans.concatenate(AffineTransform.getRotateInstance(rotation));
-        trans.transform(point, point);
+        double rotation = getRotation();
+        double cos = Math.cos(rotation);
+        double sin = Math.sin(rotation);
+        double x = point.x;
+        double y = point.y;
+        point.x = x * cos - y * sin + getX();
+        point.y = x * sin + y * cos + getY();
     }
 
     /**
-     * Reports whether this participant overlaps with p.
+     * Reports whether this participant overlaps with p. Pairs whose bounding circles are apart are rejected at once;
+     * the rest are tested piece by piece with the separating axis test. A point-like participant is tested as a disk.
      */
     public boolean overlaps (Participant p)
     {
-        Area a = new Area(border);
-        a.intersect(new Area(p.border));
+        ensurePlaced();
+        p.ensurePlaced();
+        CollisionShape a = collisionShape;
+        CollisionShape b = p.collisionShape;
+        if (a.useArea || b.useArea)
+        {
+            return overlapsArea(p);
+        }
+        if (pointLike && p.pointLike)
+        {
+            double dx = pointX - p.pointX;
+            double dy = pointY - p.pointY;
+            double reach = a.pointRadius + b.pointRadius;
+            return dx * dx + dy * dy < reach * reach;
+        }
+        else if (pointLike)
+        {
+            return p.overlapsDisk(pointX, pointY, a.pointRadius);
+        }
+        else if (p.pointLike)
+        {
+            return overlapsDisk(p.pointX, p.pointY, b.pointRadius);
+        }
+
+        double dx = borderX - p.borderX;
+        double dy = borderY - p.borderY;
+        double reach = a.radius + b.radius;
+        if (dx * dx + dy * dy >= reach * reach)
+        {
+            return false;
+        }
+
+        for (int i = 0; i < a.pieceCount(); i++)
+        {
+            for (int j = 0; j < b.pieceCount(); j++)
+            {
+                if (CollisionShape.piecesOverlap(world, a.start[i], a.start[i + 1], p.world, b.start[j],
+                        b.start[j + 1]))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the earliest fraction of the last tick at which this participant and p were overlapping, or -1 if they
+     * were not. A point that has moved further than its width is tested along the whole segment that it covered; the
+     * other participant is taken to be where it ended up. Everything else is tested only where it ended up.
+     */
+    public double timeOfImpact (Participant p)
+    {
+        ensurePlaced();
+        p.ensurePlaced();
+        if (!collisionShape.useArea && !p.collisionShape.useArea)
+        {
+            if (p.isSwept() && !pointLike)
+            {
+                return sweep(p);
+            }
+            else if (isSwept() && !p.pointLike)
+            {
+                return p.sweep(this);
+            }
+        }
+        return overlaps(p) ? 1 : -1;
+    }
+
+    /**
+     * Returns the earliest fraction of the last tick at which the point-like p, moving along a segment, overlapped
+     * this participant, which is not point-like, or -1 if it never did.
+     */
+    private double sweep (Participant p)
+    {
+        CollisionShape shape = collisionShape;
+        double x0 = p.lastPointX, y0 = p.lastPointY;
+        double dx = p.pointX - x0, dy = p.pointY - y0;
+
+        // Reject if the segment stays outside the bounding circle
+        double t = ((borderX - x0) * dx + (borderY - y0) * dy) / (dx * dx + dy * dy);
+        t = Math.max(0, Math.min(1, t));
+        double cx = x0 + t * dx - borderX;
+        double cy = y0 + t * dy - borderY;
+        double reach = shape.radius + p.collisionShape.pointRadius;
+        if (cx * cx + cy * cy >= reach * reach)
+        {
+            return -1;
+        }
+
+        double earliest = 2;
+        for (int i = 0; i < shape.pieceCount(); i++)
+        {
+            double enter = CollisionShape.segmentEntersPiece(world, shape.start[i], shape.start[i + 1], x0, y0,
+                    p.pointX, p.pointY);
+            if (enter >= 0)
+            {
+                earliest = Math.min(earliest, enter);
+            }
+        }
+        if (earliest <= 1)
+        {
+            return earliest;
+        }
+        return overlapsDisk(p.pointX, p.pointY, p.collisionShape.pointRadius) ? 1 : -1;
+    }
+
+    /**
+     * Reports whether this participant, which is not point-like, overlaps the disk with center (cx,cy) and radius r.
+     */
+    private boolean overlapsDisk (double cx, double cy, double r)
+    {
+        CollisionShape shape = collisionShape;
+        double dx = borderX - cx;
+        double dy = borderY - cy;
+        double reach = shape.radius + r;
+        if (dx * dx + dy * dy >= reach * reach)
+        {
+            return false;
+        }
+        for (int i = 0; i < shape.pieceCount(); i++)
+        {
+            if (CollisionShape.pieceOverlapsDisk(world, shape.start[i], shape.start[i + 1], cx, cy, r))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports whether this participant overlaps with p by intersecting the areas of their borders. This is slow and
+     * is kept as a reference for checking the faster test.
+     */
+    public boolean overlapsArea (Participant p)
+    {
+        Area a = new Area(getBorder());
+        a.intersect(new Area(p.getBorder()));
         return !a.isEmpty();
     }
 
     /**
-     * Draws this participant
+     * Draws this participant where it was as of the last move, by moving the graphics context rather than the
+     * outline.
      */
     public void draw (Graphics2D g)
     {
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        if (border == null)
+        ensurePlaced();
+        if (collisionOutline == null)
+        {
+            g.draw(getOutline());
+            return;
+        }
+        g.translate(borderX, borderY);
+        g.rotate(placedRotation);
+        g.draw(collisionOutline);
+        g.rotate(-placedRotation);
+        g.translate(-borderX, -borderY);
+    }
+
+    /**
+     * Adds what is needed to draw this participant, where it was before and after the last move, to the snapshot.
+     */
+    void capture (RenderSnapshot snapshot)
+    {
+        ensurePlaced();
+        if (collisionOutline == null)
         {
-            border = getOutline();
+            snapshot.add(getCollisionLayer(), getOutline(), 0, 0, 0, 0, 0);
+            return;
         }
-        g.draw(border);
+        snapshot.add(getCollisionLayer(), collisionOutline, lastBorderX, lastBorderY, borderX, borderY,
+                placedRotation);
     }
     
     /**
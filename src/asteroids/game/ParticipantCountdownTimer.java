@@ -1,23 +1,43 @@
 package asteroids.game;
 
-import javax.swing.*;
-import java.awt.event.*;
-
 /**
  * Provides objects that wait for a certain amount of time to pass before making a callback to a Participant's
  * countdownComplete method.
+ *
+ * The time is counted in ticks of the game clock, each of which is one call to
+ * {@link ParticipantState#moveParticipants()}, by a {@link TimerWheel} belonging to the ParticipantState that the
+ * participant has been added to. A delay in milliseconds is rounded up to a whole number of ticks of FRAME_INTERVAL.
+ * A timer constructed for a participant that has not been added yet starts counting when it is added.
  */
-public class ParticipantCountdownTimer implements ActionListener
+public class ParticipantCountdownTimer
 {
     /** Payload that is passed to the countdownComplete method when it is called */
     private Object payload;
 
-    /** Internal timer */
-    private Timer timer;
-
     /** Participant to be notified when time expires */
     private Participant participant;
 
+    /** The participant's generation when the timer was started, which changes if a pool reuses it */
+    private int generation;
+
+    /** Number of ticks to wait */
+    final int ticks;
+
+    /** The wheel on which the timer is scheduled, or null */
+    private TimerWheel wheel;
+
+    /** Neighbors in a TimerWheel slot, or the next timer waiting for the participant to be added */
+    ParticipantCountdownTimer prev, next;
+
+    /** The TimerWheel slot holding the timer, or -1 if it is not scheduled */
+    int slot;
+
+    /** Number of further turns of the wheel to wait once the slot is reached */
+    int rounds;
+
+    /** True if the timer has been cancelled */
+    private boolean cancelled;
+
     /**
      * Constructs an object that waits for the given number of milliseconds to pass before invoking the
      * countdownComplete method on p, passing null as its parameter. The call is not made if p has expired.
@@ -34,19 +54,54 @@ public class ParticipantCountdownTimer implements ActionListener
     public ParticipantCountdownTimer (Participant p, Object payload, int msecs)
     {
         this.participant = p;
+        this.generation = p.generation;
         this.payload = payload;
-        timer = new Timer(msecs, this);
-        timer.start();
+        this.ticks = TimerWheel.ticksFor(msecs);
+        slot = -1;
+        if (p.owner != null)
+        {
+            start(p.owner.timers);
+        }
+        else
+        {
+            next = p.waitingTimers;
+            p.waitingTimers = this;
+        }
+    }
+
+    /**
+     * Starts counting on the wheel, unless the timer has been cancelled or the participant reused by a pool.
+     */
+    void start (TimerWheel wheel)
+    {
+        if (!cancelled && participant.generation == generation)
+        {
+            this.wheel = wheel;
+            wheel.schedule(this, ticks);
+        }
+    }
+
+    /**
+     * Stops the timer so that the callback is never made.
+     */
+    public void cancel ()
+    {
+        cancelled = true;
+        if (slot >= 0)
+        {
+            wheel.cancel(this);
+        }
+        wheel = null;
     }
 
     /**
-     * When the interval has passed, stops the timer and makes the callback, as long as the participant has not expired.
+     * When the interval has passed, makes the callback, as long as the participant has not expired or been reused by
+     * a pool since the timer was started.
      */
-    @Override
-    public void actionPerformed (ActionEvent e)
+    void fire ()
     {
-        timer.stop();
-        if (!participant.isExpired())
+        wheel = null;
+        if (!cancelled && !participant.isExpired() && participant.generation == generation)
         {
             participant.countdownComplete(payload);
         }
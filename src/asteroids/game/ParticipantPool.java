@@ -0,0 +1,75 @@
+package asteroids.game;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * A pool of Participants of one type that can be reused instead of constructed. A participant obtained from the pool
+ * goes back into it once it has expired and its ParticipantState has removed it, at the end of a move. It is then
+ * handed out again, as good as new, by a later call to obtain. Anything that holds on to a pooled participant after it
+ * expires must expect it to come back to life as a different participant.
+ * {@link ParticipantCountdownTimer}s started for an earlier life are ignored.
+ */
+public class ParticipantPool<T extends Participant>
+{
+    /** Creates participants when the pool is empty */
+    private Supplier<T> factory;
+
+    /** Participants that are free to be handed out */
+    private Participant[] free;
+
+    /** Number of free participants */
+    private int size;
+
+    /**
+     * Creates an empty pool that uses the factory to make participants when it has none to reuse.
+     */
+    public ParticipantPool (Supplier<T> factory)
+    {
+        this.factory = factory;
+        free = new Participant[16];
+    }
+
+    /**
+     * Returns a participant that is not expired, has not been added to a ParticipantState, and has no position,
+     * velocity or rotation. The caller should finish initializing it before adding it.
+     */
+    @SuppressWarnings("unchecked")
+    public T obtain ()
+    {
+        T p;
+        if (size > 0)
+        {
+            p = (T) free[--size];
+            free[size] = null;
+            p.revive();
+        }
+        else
+        {
+            p = factory.get();
+        }
+        p.pool = this;
+        return p;
+    }
+
+    /**
+     * Returns the number of participants waiting to be reused
+     */
+    public int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Takes back a participant that has expired and been removed.
+     */
+    void release (Participant p)
+    {
+        p.pool = null;
+        if (size == free.length)
+        {
+            free = Arrays.copyOf(free, 2 * size);
+        }
+        free[size++] = p;
+    }
+}
@@ -0,0 +1,257 @@
+package asteroids.game;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A dense, array-backed store of Participants. Active participants are kept in the order in which they were added,
+ * which is the order that collisions are dispatched in. New participants wait in a pending array until the next call
+ * to {@link #completeAddsAndRemoves()}, which appends them and squeezes out the expired participants in a single pass.
+ * 
+ * Every participant that is added is also given a generational handle. A handle stays valid until its participant is
+ * removed, after which the slot it names is reused with a new generation, so a stale handle can be recognized in
+ * constant time.
+ */
+class ParticipantRegistry
+{
+    /** The active participants, in the order they were added */
+    private Participant[] active;
+
+    /** Number of active participants */
+    private int size;
+
+    /** Participants waiting to be added, in the order they were added */
+    private Participant[] pending;
+
+    /** Number of pending participants */
+    private int pendingSize;
+
+    /** The participant that holds each handle slot, or null */
+    private Participant[] slots;
+
+    /** The current generation of each handle slot */
+    private int[] generations;
+
+    /** Handle slots that are free for reuse */
+    private int[] free;
+
+    /** Number of free handle slots */
+    private int freeSize;
+
+    /** Number of handle slots that have ever been used */
+    private int slotsUsed;
+
+    /** The iterator handed out by iterator(), reused so that iterating does not allocate */
+    private Cursor cursor;
+
+    /**
+     * Creates an empty registry.
+     */
+    ParticipantRegistry ()
+    {
+        active = new Participant[64];
+        pending = new Participant[16];
+        slots = new Participant[64];
+        generations = new int[64];
+        free = new int[64];
+        cursor = new Cursor();
+    }
+
+    /**
+     * Returns the number of active participants
+     */
+    int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the active participant at position i
+     */
+    Participant get (int i)
+    {
+        return active[i];
+    }
+
+    /**
+     * Returns the number of participants waiting to be added
+     */
+    int pendingSize ()
+    {
+        return pendingSize;
+    }
+
+    /**
+     * Returns the participant at position i among those waiting to be added
+     */
+    Participant getPending (int i)
+    {
+        return pending[i];
+    }
+
+    /**
+     * Puts p among the participants waiting to be added and returns its new handle.
+     */
+    long add (Participant p)
+    {
+        if (pendingSize == pending.length)
+        {
+            pending = Arrays.copyOf(pending, 2 * pendingSize);
+        }
+        pending[pendingSize++] = p;
+
+        int slot;
+        if (freeSize > 0)
+        {
+            slot = free[--freeSize];
+        }
+        else
+        {
+            if (slotsUsed == slots.length)
+            {
+                slots = Arrays.copyOf(slots, 2 * slotsUsed);
+                generations = Arrays.copyOf(generations, 2 * slotsUsed);
+                free = Arrays.copyOf(free, 2 * slotsUsed);
+            }
+            slot = slotsUsed++;
+        }
+        slots[slot] = p;
+        p.handle = ((long) generations[slot] << 32) | slot;
+        return p.handle;
+    }
+
+    /**
+     * Reports whether the handle belongs to a participant that is still in the registry and has not expired.
+     */
+    boolean isLive (long handle)
+    {
+        int slot = (int) handle;
+        if (slot < 0 || slot >= slotsUsed || generations[slot] != (int) (handle >>> 32))
+        {
+            return false;
+        }
+        Participant p = slots[slot];
+        return p != null && !p.isExpired();
+    }
+
+    /**
+     * Appends the pending participants to the active ones, then removes every expired participant, keeping the
+     * order of the rest. Each removed participant is passed to the listener, if there is one.
+     */
+    void completeAddsAndRemoves (RemovalListener listener)
+    {
+        if (size + pendingSize > active.length)
+        {
+            active = Arrays.copyOf(active, Math.max(2 * active.length, size + pendingSize));
+        }
+        System.arraycopy(pending, 0, active, size, pendingSize);
+        Arrays.fill(pending, 0, pendingSize, null);
+        size += pendingSize;
+        pendingSize = 0;
+
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+        {
+            Participant p = active[i];
+            if (p.isExpired())
+            {
+                release(p);
+                if (listener != null)
+                {
+                    listener.removed(p);
+                }
+            }
+            else
+            {
+                active[kept++] = p;
+            }
+        }
+        Arrays.fill(active, kept, size, null);
+        size = kept;
+    }
+
+    /**
+     * Removes every participant, active and pending, passing each to the listener if there is one.
+     */
+    void clear (RemovalListener listener)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            release(active[i]);
+            if (listener != null)
+            {
+                listener.removed(active[i]);
+            }
+        }
+        for (int i = 0; i < pendingSize; i++)
+        {
+            release(pending[i]);
+            if (listener != null)
+            {
+                listener.removed(pending[i]);
+            }
+        }
+        Arrays.fill(active, 0, size, null);
+        Arrays.fill(pending, 0, pendingSize, null);
+        size = 0;
+        pendingSize = 0;
+    }
+
+    /**
+     * Frees the handle slot of p and advances its generation.
+     */
+    private void release (Participant p)
+    {
+        int slot = (int) p.handle;
+        slots[slot] = null;
+        generations[slot]++;
+        free[freeSize++] = slot;
+    }
+
+    /**
+     * Returns an iterator over the active participants. The same iterator object is returned every time, so only one
+     * iteration may be in progress at once.
+     */
+    Iterator<Participant> iterator ()
+    {
+        cursor.next = 0;
+        return cursor;
+    }
+
+    /**
+     * Receives the participants that are removed from a registry.
+     */
+    interface RemovalListener
+    {
+        /**
+         * Called once for each participant that is removed.
+         */
+        void removed (Participant p);
+    }
+
+    /**
+     * Iterates over the active participants.
+     */
+    private class Cursor implements Iterator<Participant>
+    {
+        /** Position of the next participant to return */
+        int next;
+
+        @Override
+        public boolean hasNext ()
+        {
+            return next < size;
+        }
+
+        @Override
+        public Participant next ()
+        {
+            if (next >= size)
+            {
+                throw new NoSuchElementException();
+            }
+            return active[next++];
+        }
+    }
+}
@@ -1,153 +1,445 @@
 package asteroids.game;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Set;
-import asteroids.participants.AlienShip;
-import asteroids.participants.Asteroid;
-import asteroids.participants.Bullets;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Keeps track of the Participants, their motions, and their collisions.
  */
 public class ParticipantState
 {
-    /** The participants (asteroids, ships, etc.) that are involved in the game */
-    private LinkedList<Participant> participants;
+    /** The participants (asteroids, ships, etc.) that are involved in the game, and those waiting to be added */
+    private ParticipantRegistry participants;
 
-    /** Participants that are waiting to be added to the game */
-    private Set<Participant> pendingAdds;
+    /** Detaches participants as they are removed from the registry */
+    private ParticipantRegistry.RemovalListener detacher;
+
+    /** For each collision layer index, the number of unexpired participants that are active or waiting to be added */
+    private int[] live;
+
+    /** For each collision layer index, the active participants on that layer */
+    private ArrayList<ArrayList<Participant>> byLayer;
+
+    /** Finds the pairs of participants that might be colliding */
+    private Broadphase broadphase;
+
+    /** Which collision layers interact */
+    private CollisionMatrix matrix;
+
+    /** True if collisions are tested with the Area-based reference test */
+    private boolean areaNarrowphase;
+
+    /** True if fast point-like participants are tested along the whole of each move */
+    private boolean continuous;
+
+    /** The participants taking part in the current collision pass */
+    private CollisionBodies bodies;
+
+    /** The candidate pairs for the current collision pass */
+    private CollisionPairs pairs;
+
+    /** Holds the kinematic state of the active participants in arrays, or null if each participant holds its own */
+    private KinematicStore store;
+
+    /** Records which moving methods each participant class overrides */
+    private MoveKinds moveKinds;
+
+    /** The threads shared by the parallel move and collision passes, or null if neither is turned on */
+    private ForkJoinPool pool;
+
+    /** True if the pool was created for this state alone, and so is shut down by close */
+    private boolean ownsPool;
+
+    /** Moves participants in parallel, or null if they are always moved one at a time */
+    private ParallelMover mover;
+
+    /** Tests candidate pairs in parallel, or null if they are always tested one at a time */
+    private ParallelDetector detector;
+
+    /** The participants being moved in parallel */
+    private Participant[] moving;
+
+    /** Removed participants that go back to a pool once the removal is complete */
+    private ArrayList<Participant> recycled;
+
+    /** Runs the countdown timers of the participants, one tick per move */
+    final TimerWheel timers;
+
+    /** Times the phases of each move and counts what happens in it */
+    final TickMetrics metrics;
 
     /**
-     * Creates an empty ParticipantState.
+     * Creates an empty ParticipantState. The collision broadphase is chosen by the system property named by
+     * BROADPHASE_PROPERTY. If the parallel move or collision passes are turned on, they run on a pool of the state's
+     * own, which close shuts down.
      */
     public ParticipantState ()
+    {
+        this(Broadphase.forName(System.getProperty(Constants.BROADPHASE_PROPERTY)));
+    }
+
+    /**
+     * Creates an empty ParticipantState whose parallel move and collision passes, if they are turned on, run on the
+     * given pool, which may be shared with other states and is not shut down by close. If the pool is null, nothing
+     * runs in parallel.
+     */
+    public ParticipantState (ForkJoinPool pool)
+    {
+        this(Broadphase.forName(System.getProperty(Constants.BROADPHASE_PROPERTY)), pool, false);
+    }
+
+    /**
+     * Creates an empty ParticipantState that uses the given broadphase, and a pool of its own if the parallel move or
+     * collision passes are turned on.
+     */
+    ParticipantState (Broadphase broadphase)
+    {
+        this(broadphase, createPool(), true);
+    }
+
+    /**
+     * Creates an empty ParticipantState that uses the given broadphase and runs its parallel passes on the pool,
+     * which it shuts down on close if it owns it.
+     */
+    private ParticipantState (Broadphase broadphase, ForkJoinPool pool, boolean ownsPool)
     {
         // No participants at the start
-        participants = new LinkedList<Participant>();
-        pendingAdds = new HashSet<Participant>();
+        participants = new ParticipantRegistry();
+        detacher = this::detach;
+        live = new int[32];
+        byLayer = new ArrayList<ArrayList<Participant>>();
+        for (int i = 0; i < 32; i++)
+        {
+            byLayer.add(new ArrayList<Participant>());
+        }
+        this.broadphase = broadphase;
+        matrix = new CollisionMatrix();
+        bodies = new CollisionBodies(matrix);
+        pairs = new CollisionPairs();
+        areaNarrowphase = "area".equals(System.getProperty(Constants.NARROWPHASE_PROPERTY));
+        continuous = Boolean.getBoolean(Constants.CONTINUOUS_PROPERTY);
+        if ("soa".equals(System.getProperty(Constants.KINEMATICS_PROPERTY)))
+        {
+            store = new KinematicStore();
+        }
+        moveKinds = new MoveKinds();
+        Integer moveThreshold = Integer.getInteger(Constants.PARALLEL_MOVE_PROPERTY);
+        Integer pairThreshold = Integer.getInteger(Constants.PARALLEL_COLLISIONS_PROPERTY);
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        if (moveThreshold != null && pool != null)
+        {
+            mover = new ParallelMover(pool, moveThreshold);
+        }
+        if (pairThreshold != null && pool != null && !areaNarrowphase)
+        {
+            detector = new ParallelDetector(pool, pairThreshold);
+        }
+        moving = new Participant[64];
+        recycled = new ArrayList<Participant>();
+        timers = new TimerWheel();
+        metrics = new TickMetrics();
     }
 
     /**
-     * Clears out the state.
+     * Returns a pool for the parallel move and collision passes, with as many threads as PARALLELISM_PROPERTY asks
+     * for (or one per processor), or null if neither pass is turned on. One pool can be shared by any number of
+     * ParticipantStates, and whoever creates it shuts it down.
      */
-    public void clear ()
+    public static ForkJoinPool createPool ()
     {
-        pendingAdds.clear();
-        for (Participant p : participants)
+        if (Integer.getInteger(Constants.PARALLEL_MOVE_PROPERTY) == null
+            && Integer.getInteger(Constants.PARALLEL_COLLISIONS_PROPERTY) == null)
         {
-            Participant.expire(p);
+            return null;
         }
-        participants.clear();
+        return new ForkJoinPool(Integer.getInteger(Constants.PARALLELISM_PROPERTY,
+                Runtime.getRuntime().availableProcessors()));
     }
 
     /**
-     * Adds a new Participant
+     * Shuts down the pool of the parallel passes if it belongs to this state alone. The state must not be moved or
+     * checked for collisions afterwards.
      */
-    public void addParticipant (Participant p)
+    public void close ()
     {
-        pendingAdds.add(p);
+        if (ownsPool)
+        {
+            pool.shutdown();
+            ownsPool = false;
+        }
     }
 
     /**
-     * Returns an iterator over the active participants
+     * Clears out the state.
      */
-    public Iterator<Participant> getParticipants ()
+    public void clear ()
     {
-        return participants.iterator();
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant.expire(participants.get(i));
+        }
+        participants.clear(detacher);
+        if (store != null)
+        {
+            store.clear();
+        }
+        Arrays.fill(live, 0);
+        for (ArrayList<Participant> list : byLayer)
+        {
+            list.clear();
+        }
+        recycle();
+        timers.clear();
     }
 
     /**
-     * Returns the number of asteroids that are active participants
+     * Adds a new Participant and returns its handle. Adding a participant that has already been added does nothing
+     * but return its handle.
      */
-    public int countAsteroids ()
+    public long addParticipant (Participant p)
     {
-        int count = 0;
-        for (Participant p : participants)
+        if (p.owner == this)
         {
-            if (p instanceof Asteroid && !p.isExpired())
-            {
-                count++;
-            }
+            return p.handle;
         }
-        for (Participant p : pendingAdds)
+        p.owner = this;
+        int layer = p.getCollisionLayer();
+        p.layerIndex = CollisionLayer.indexOf(layer);
+        p.moveKind = moveKinds.of(p.getClass());
+        matrix.register(layer, p.getCollisionMask());
+        if (!p.isExpired())
         {
-            if (p instanceof Asteroid && !p.isExpired())
-            {
-                count++;
-            }
+            live[p.layerIndex]++;
         }
-        return count;
+        startWaitingTimers(p);
+        return participants.add(p);
     }
 
     /**
-     * Returns the number of bullet that are active participants
+     * Starts the timers that were constructed for p before it was added, in the order they were constructed.
      */
-    public int countBullets ()
+    private void startWaitingTimers (Participant p)
     {
-        int count = 0;
-        for (Participant p : participants)
+        ParticipantCountdownTimer reversed = null;
+        while (p.waitingTimers != null)
         {
-            if (p instanceof Bullets && !p.isExpired())
-            {
-                count++;
-            }
+            ParticipantCountdownTimer timer = p.waitingTimers;
+            p.waitingTimers = timer.next;
+            timer.next = reversed;
+            reversed = timer;
         }
-        for (Participant p : pendingAdds)
+        while (reversed != null)
         {
-            if (p instanceof Bullets && !p.isExpired())
-            {
-                count++;
-            }
+            ParticipantCountdownTimer timer = reversed;
+            reversed = timer.next;
+            timer.next = null;
+            timer.start(timers);
         }
-        return count;
     }
-    
+
     /**
-     * Returns the number of alien ship that are active participants
+     * Reports in constant time whether the handle returned when a participant was added still refers to a participant
+     * that is in this state (active or waiting to be added) and has not expired.
      */
-    public int countAlienShip ()
+    public boolean isLive (long handle)
+    {
+        return participants.isLive(handle);
+    }
+
+    /**
+     * Called as each participant is removed.
+     */
+    private void detach (Participant p)
     {
-        int count = 0;
-        for (Participant p : participants)
+        p.owner = null;
+        if (store != null)
         {
-            if (p instanceof AlienShip && !p.isExpired())
-            {
-                count++;
-            }
+            store.remove(p);
         }
-        for (Participant p : pendingAdds)
+        if (p.pool != null)
         {
-            if (p instanceof AlienShip && !p.isExpired())
+            recycled.add(p);
+        }
+    }
+
+    /**
+     * Returns the pooled participants that have been removed to their pools.
+     */
+    private void recycle ()
+    {
+        for (int i = 0; i < recycled.size(); i++)
+        {
+            Participant p = recycled.get(i);
+            p.pool.release(p);
+        }
+        recycled.clear();
+    }
+
+    /**
+     * Called when a participant that has been added expires.
+     */
+    void participantExpired (Participant p)
+    {
+        live[p.layerIndex]--;
+    }
+
+    /**
+     * Returns an iterator over the active participants. The iterator is reused, so only one iteration may be in
+     * progress at a time.
+     */
+    public Iterator<Participant> getParticipants ()
+    {
+        return participants.iterator();
+    }
+
+    /**
+     * Fills in the snapshot with the active participants, in the order that getParticipants returns them.
+     */
+    void capture (RenderSnapshot snapshot)
+    {
+        snapshot.clear();
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired())
             {
-                count++;
+                p.capture(snapshot);
             }
         }
-        return count;
     }
 
     /**
-     * Moves each of the active participants to simulate the passage of time.
+     * Returns an iterator over the active participants on the given collision layer (one of the constants in
+     * {@link CollisionLayer})
+     */
+    public Iterator<Participant> getParticipants (int layer)
+    {
+        return byLayer.get(CollisionLayer.indexOf(layer)).iterator();
+    }
+
+    /**
+     * Returns the number of participants on the given collision layer that are active or waiting to be added and have
+     * not expired
+     */
+    public int count (int layer)
+    {
+        return live[CollisionLayer.indexOf(layer)];
+    }
+
+    /**
+     * Returns the number of asteroids that are active participants
+     */
+    public int countAsteroids ()
+    {
+        return count(CollisionLayer.ASTEROID);
+    }
+
+    /**
+     * Returns the number of bullet that are active participants
+     */
+    public int countBullets ()
+    {
+        return count(CollisionLayer.BULLET);
+    }
+
+    /**
+     * Returns the number of alien ship that are active participants
+     */
+    public int countAlienShip ()
+    {
+        return count(CollisionLayer.ALIEN_SHIP);
+    }
+
+    /**
+     * Moves each of the active participants to simulate the passage of time. First the countdown timers that have come
+     * due go off.
      */
     public void moveParticipants ()
     {
+        long mark = System.nanoTime();
+        timers.advance();
+        mark = metrics.lap(TickMetrics.TIMERS, mark);
+
         // Move all of the active participants
-        for (Participant p : participants)
+        if (store != null)
         {
-            if (!p.isExpired())
+            store.move(mover);
+        }
+        else if (mover != null && mover.worthwhile(participants.size()))
+        {
+            moveInParallel();
+        }
+        else
+        {
+            for (int i = 0; i < participants.size(); i++)
             {
-                p.move();
+                Participant p = participants.get(i);
+                if (!p.isExpired())
+                {
+                    p.move();
+                }
             }
         }
 
+        mark = metrics.lap(TickMetrics.MOVE, mark);
+
         // If there have been any collisions, deal with them. This may result
         // in new participants being added or old ones expiring. We save those
         // changes until after all of the collisions have been processed.
         checkForCollisions();
+        mark = metrics.lap(TickMetrics.COLLIDE, mark);
 
         // Deal with pending adds and expirations
         completeAddsAndRemoves();
+        metrics.lap(TickMetrics.UPDATE, mark);
+        metrics.countParticipants(timers.scheduled(), live);
+    }
+
+    /**
+     * Moves the active participants in three passes: the beforeMove hooks, then the motion on the mover's threads,
+     * then the afterMove hooks together with the participants whose class overrides move.
+     */
+    private void moveInParallel ()
+    {
+        int n = 0;
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired() && (p.moveKind & MoveKinds.MOVE) == 0)
+            {
+                if ((p.moveKind & MoveKinds.BEFORE) != 0)
+                {
+                    p.beforeMove();
+                }
+                if (n == moving.length)
+                {
+                    moving = Arrays.copyOf(moving, 2 * n);
+                }
+                moving[n++] = p;
+            }
+        }
+
+        mover.integrate(moving, n);
+        Arrays.fill(moving, 0, n, null);
+
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired())
+            {
+                if ((p.moveKind & MoveKinds.MOVE) != 0)
+                {
+                    p.move();
+                }
+                else if ((p.moveKind & MoveKinds.AFTER) != 0)
+                {
+                    p.afterMove();
+                }
+            }
+        }
     }
 
     /**
@@ -157,48 +449,114 @@ public class ParticipantState
     {
         // Note: These updates are saved up and done later to avoid modifying
         // the participants list while it is being iterated over
-        for (Participant p : pendingAdds)
+        for (int i = 0; i < participants.pendingSize(); i++)
+        {
+            Participant p = participants.getPending(i);
+            byLayer.get(p.layerIndex).add(p);
+            if (store != null && !p.isExpired())
+            {
+                store.add(p);
+            }
+        }
+        participants.completeAddsAndRemoves(detacher);
+        for (ArrayList<Participant> list : byLayer)
         {
-            participants.add(p);
+            removeExpired(list);
         }
-        pendingAdds.clear();
+        if (store != null)
+        {
+            store.removeExpired();
+        }
+        recycle();
+    }
 
-        Iterator<Participant> iter = participants.iterator();
-        while (iter.hasNext())
+    /**
+     * Removes the expired participants from the list, keeping the rest in order.
+     */
+    private static void removeExpired (ArrayList<Participant> list)
+    {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++)
         {
-            Participant p = iter.next();
-            if (p.isExpired())
+            Participant p = list.get(i);
+            if (!p.isExpired())
             {
-                iter.remove();
+                list.set(kept++, p);
             }
         }
+        while (list.size() > kept)
+        {
+            list.remove(list.size() - 1);
+        }
     }
 
     /**
-     * Compares each pair of elements to detect collisions, then notifies all listeners of any found. Deals with each
-     * pair only once. Never deals with (p1,p2) and then again with (p2,p1).
+     * Compares each candidate pair of elements to detect collisions, then notifies all listeners of any found. Deals
+     * with each pair only once. Never deals with (p1,p2) and then again with (p2,p1). The pairs are dealt with in the
+     * same order as a walk of every pair would: p1 from the front of the list, and for each p1, p2 from the back.
      */
-    private void checkForCollisions ()
+    void checkForCollisions ()
     {
-        for (Participant p1 : participants)
+        // Gather the active participants that interact with anything and let the broadphase pick the pairs worth
+        // testing
+        bodies.clear();
+        for (int i = 0; i < participants.size(); i++)
+        {
+            Participant p = participants.get(i);
+            if (!p.isExpired() && matrix.isActive(p.layerIndex))
+            {
+                bodies.add(p, p.layerIndex, continuous);
+            }
+        }
+        pairs.clear();
+        broadphase.findCandidates(bodies, pairs);
+        pairs.sort();
+
+        // Test the pairs in parallel and then deal with the collisions in order, or do both together one pair at a
+        // time. Either way, a participant may expire part way through, so check again before dealing with each pair.
+        int collisions = 0;
+        if (detector != null && detector.worthwhile(pairs.size()))
+        {
+            double[] times = detector.detect(bodies, pairs, continuous);
+            for (int k = 0; k < pairs.size(); k++)
+            {
+                if (collide(bodies.bodies[pairs.first(k)], bodies.bodies[pairs.second(k)], times[k]))
+                {
+                    collisions++;
+                }
+            }
+        }
+        else
         {
-            if (!p1.isExpired())
+            for (int k = 0; k < pairs.size(); k++)
             {
-                Iterator<Participant> iter = participants.descendingIterator();
-                while (iter.hasNext())
+                Participant p1 = bodies.bodies[pairs.first(k)];
+                Participant p2 = bodies.bodies[pairs.second(k)];
+                if (!p1.isExpired() && !p2.isExpired()
+                    && collide(p1, p2, ParallelDetector.timeOfImpact(p1, p2, areaNarrowphase, continuous)))
                 {
-                    Participant p2 = iter.next();
-                    if (p1 == p2)
-                        break;
-                    if (!p2.isExpired() && p1.overlaps(p2))
-                    {
-                        p1.collidedWith(p2);
-                        p2.collidedWith(p1);
-                    }
-                    if (p1.isExpired())
-                        break;
+                    collisions++;
                 }
             }
         }
+        metrics.countCollisions(pairs.size(), collisions);
+        bodies.clear();
+    }
+
+    /**
+     * Tells p1 and p2 that they collided at the given time, unless the time is negative or either of them has expired.
+     * Returns whether they were told.
+     */
+    private static boolean collide (Participant p1, Participant p2, double time)
+    {
+        if (time >= 0 && !p1.isExpired() && !p2.isExpired())
+        {
+            p1.setTimeOfImpact(time);
+            p2.setTimeOfImpact(time);
+            p1.collidedWith(p2);
+            p2.collidedWith(p1);
+            return true;
+        }
+        return false;
     }
 }
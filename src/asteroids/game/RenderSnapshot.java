@@ -0,0 +1,125 @@
+package asteroids.game;
+
+import static asteroids.game.Constants.*;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.util.Arrays;
+
+/**
+ * What the screen needs to draw the participants as of one move: for each participant its collision layer, its
+ * outline, and where it was before and after the move. The game thread fills in a snapshot and hands it to the screen
+ * through a {@link SnapshotBuffer}, after which the snapshot is not changed until the screen has let go of it. The
+ * outlines are shared with the participants, which never change an outline once it has been returned by getOutline.
+ */
+class RenderSnapshot
+{
+    /** Collision layer of each participant, which says what kind of participant it is */
+    private int[] layer;
+
+    /** Outline of each participant */
+    private Shape[] outline;
+
+    /** Position of each participant before and after the move */
+    private double[] lastX, lastY, x, y;
+
+    /** Rotation of each participant */
+    private double[] rotation;
+
+    /** Number of participants */
+    private int size;
+
+    /** The System.nanoTime at which the move is taken to have happened */
+    long time;
+
+    /**
+     * Creates an empty snapshot.
+     */
+    RenderSnapshot ()
+    {
+        allocate(256);
+    }
+
+    /**
+     * Makes every array hold capacity entries.
+     */
+    private void allocate (int capacity)
+    {
+        layer = layer == null ? new int[capacity] : Arrays.copyOf(layer, capacity);
+        outline = outline == null ? new Shape[capacity] : Arrays.copyOf(outline, capacity);
+        lastX = lastX == null ? new double[capacity] : Arrays.copyOf(lastX, capacity);
+        lastY = lastY == null ? new double[capacity] : Arrays.copyOf(lastY, capacity);
+        x = x == null ? new double[capacity] : Arrays.copyOf(x, capacity);
+        y = y == null ? new double[capacity] : Arrays.copyOf(y, capacity);
+        rotation = rotation == null ? new double[capacity] : Arrays.copyOf(rotation, capacity);
+    }
+
+    /**
+     * Empties the snapshot so that it can be filled in again.
+     */
+    void clear ()
+    {
+        Arrays.fill(outline, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the number of participants in the snapshot
+     */
+    int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Adds a participant of the given layer whose outline moved from (lastX, lastY) to (x, y) and is rotated by
+     * rotation.
+     */
+    void add (int layer, Shape outline, double lastX, double lastY, double x, double y, double rotation)
+    {
+        if (size == this.layer.length)
+        {
+            allocate(2 * size);
+        }
+        this.layer[size] = layer;
+        this.outline[size] = outline;
+        this.lastX[size] = lastX;
+        this.lastY[size] = lastY;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.rotation[size] = rotation;
+        size++;
+    }
+
+    /**
+     * Returns the collision layer of participant i
+     */
+    int getLayer (int i)
+    {
+        return layer[i];
+    }
+
+    /**
+     * Draws every participant alpha of the way from where it was before the move to where it was after it. A
+     * participant that wrapped around the screen in the move is drawn where it ended up.
+     */
+    void draw (Graphics2D g, double alpha)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            double dx = x[i] - lastX[i];
+            double dy = y[i] - lastY[i];
+            double drawX = x[i];
+            double drawY = y[i];
+            if (alpha < 1 && Math.abs(dx) <= SIZE / 2 && Math.abs(dy) <= SIZE / 2)
+            {
+                drawX = lastX[i] + alpha * dx;
+                drawY = lastY[i] + alpha * dy;
+            }
+            g.translate(drawX, drawY);
+            g.rotate(rotation[i]);
+            g.draw(outline[i]);
+            g.rotate(-rotation[i]);
+            g.translate(-drawX, -drawY);
+        }
+    }
+}
@@ -2,7 +2,6 @@ package asteroids.game;
 
 import static asteroids.game.Constants.*;
 import java.awt.*;
-import java.util.Iterator;
 import javax.swing.*;
 import asteroids.participants.Ship;
 
@@ -13,25 +12,25 @@ import asteroids.participants.Ship;
 public class Screen extends JPanel
 {
     /** Legend that is displayed across the screen */
-    private String legend;
+    private volatile String legend;
 
     /** Game controller */
     private Controller controller;
 
     /** Level currently being played **/
-    private int level;
+    private volatile int level;
 
     /** lives currently being played **/
-    private int lives;
+    private volatile int lives;
 
     /** Current Score **/
-    private int score;
+    private volatile int score;
 
     /** A shape used to draw lives */
     private Ship liveShape;
 
     /** Highest Score */
-    private int highScore;
+    private volatile int highScore;
 
     /**
      * Creates an empty screen
@@ -97,12 +96,13 @@ public class Screen extends JPanel
         // Do the default painting
         super.paintComponent(g);
 
-        // Draw each participant in its proper place
-        Iterator<Participant> iter = controller.getParticipants();
-        while (iter.hasNext())
-        {
-            iter.next().draw(g);
-        }
+        // Draw each participant in the latest snapshot, part way through the move that the game thread is now
+        // simulating
+        long start = System.nanoTime();
+        RenderSnapshot snapshot = controller.getSnapshot();
+        double alpha = (start - snapshot.time) / (FRAME_INTERVAL * 1000000.0);
+        snapshot.draw(g, Math.max(0, Math.min(1, alpha)));
+        controller.getMetrics().lap(TickMetrics.PAINT, start);
 
         // Draw the legend across the middle of the panel
         int size = g.getFontMetrics().stringWidth(legend);
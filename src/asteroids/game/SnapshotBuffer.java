@@ -0,0 +1,66 @@
+package asteroids.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A triple buffer of RenderSnapshots that passes snapshots from the game thread to the thread that paints the screen
+ * without locking. The game thread fills in the back snapshot and publishes it, and the painting thread takes the
+ * latest published snapshot. The two threads never hold the same snapshot, neither ever waits for the other, and a
+ * snapshot that is published while another is still unread replaces it.
+ */
+class SnapshotBuffer
+{
+    /** Set in the shared index when the shared snapshot has been published since it was last taken */
+    private static final int FRESH = 4;
+
+    /** The three snapshots */
+    private final RenderSnapshot[] snapshots;
+
+    /** The index of the snapshot passed between the threads, with the FRESH bit */
+    private final AtomicInteger shared;
+
+    /** The index of the snapshot being filled in, used only by the game thread */
+    private int back;
+
+    /** The index of the snapshot being painted, used only by the painting thread */
+    private int front;
+
+    /**
+     * Creates a buffer of three empty snapshots.
+     */
+    SnapshotBuffer ()
+    {
+        snapshots = new RenderSnapshot[] { new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot() };
+        front = 0;
+        shared = new AtomicInteger(1);
+        back = 2;
+    }
+
+    /**
+     * Returns the snapshot for the game thread to fill in. It is the same snapshot until it is published.
+     */
+    RenderSnapshot back ()
+    {
+        return snapshots[back];
+    }
+
+    /**
+     * Makes the back snapshot the latest one and gives the game thread a different one to fill in next.
+     */
+    void publish ()
+    {
+        back = shared.getAndSet(back | FRESH) & ~FRESH;
+    }
+
+    /**
+     * Returns the latest snapshot that the game thread has published, which the caller may use until its next call.
+     */
+    RenderSnapshot latest ()
+    {
+        if ((shared.get() & FRESH) != 0)
+        {
+            front = shared.getAndSet(front) & ~FRESH;
+        }
+        return snapshots[front];
+    }
+}
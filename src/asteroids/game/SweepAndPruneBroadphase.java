@@ -0,0 +1,192 @@
+package asteroids.game;
+
+import java.util.Arrays;
+
+/**
+ * Sorts the participants along the x-axis by the left edges of their bounding boxes and pairs only those whose
+ * x-extents overlap. The order from the previous pass is kept and repaired with an insertion sort, which is nearly
+ * linear because participants move only a little between ticks. Participants that are new since the last pass are in
+ * no useful order, so they are merge sorted on their own and then merged into the repaired order; a first pass, a new
+ * level or a large spawn thus costs O(n log n) rather than the O(n^2) of inserting them one by one.
+ */
+class SweepAndPruneBroadphase implements Broadphase
+{
+    /** The participants in sorted order as of the last pass */
+    private Participant[] order;
+
+    /** Number of participants in order */
+    private int size;
+
+    /** Positions of the bodies in sorted order for the current pass */
+    private int[] sorted;
+
+    /** Marks the bodies that were carried over from the previous order */
+    private boolean[] seen;
+
+    /** Scratch space for merging runs of sorted */
+    private int[] scratch;
+
+    /** Rejects the pairs that overlap along the x-axis in batches, or null to test each pair on its own */
+    private BoundsFilter filter;
+
+    /** The survivors of each batch */
+    private int[] survivors;
+
+    /**
+     * Creates a broadphase with no remembered order. If filter is not null, it is used to reject pairs.
+     */
+    SweepAndPruneBroadphase (BoundsFilter filter)
+    {
+        this.filter = filter;
+        order = new Participant[64];
+        size = 0;
+        sorted = new int[64];
+        seen = new boolean[64];
+        scratch = new int[64];
+    }
+
+    @Override
+    public void findCandidates (CollisionBodies bodies, CollisionPairs pairs)
+    {
+        int n = bodies.count;
+        if (sorted.length < n)
+        {
+            int length = Math.max(n, 2 * sorted.length);
+            sorted = new int[length];
+            seen = new boolean[length];
+            scratch = new int[length];
+            order = Arrays.copyOf(order, length);
+        }
+        Arrays.fill(seen, 0, n, false);
+
+        // Keep the previous order for the participants that are still present, then append the new ones
+        int count = 0;
+        for (int k = 0; k < size; k++)
+        {
+            Participant p = order[k];
+            int i = p.collisionIndex;
+            if (i >= 0 && i < n && bodies.bodies[i] == p && !seen[i])
+            {
+                seen[i] = true;
+                sorted[count++] = i;
+            }
+        }
+        int kept = count;
+        for (int i = 0; i < n; i++)
+        {
+            if (!seen[i])
+            {
+                sorted[count++] = i;
+            }
+        }
+
+        // Repair the kept order, sort the new participants on their own, and merge the two
+        double[] minX = bodies.minX;
+        for (int k = 1; k < kept; k++)
+        {
+            int i = sorted[k];
+            int m = k - 1;
+            while (m >= 0 && minX[sorted[m]] > minX[i])
+            {
+                sorted[m + 1] = sorted[m];
+                m--;
+            }
+            sorted[m + 1] = i;
+        }
+        for (int width = 1; width < n - kept; width *= 2)
+        {
+            for (int from = kept; from < n - width; from += 2 * width)
+            {
+                merge(minX, from, from + width, Math.min(from + 2 * width, n));
+            }
+        }
+        if (kept > 0 && kept < n)
+        {
+            merge(minX, 0, kept, n);
+        }
+
+        // Sweep
+        if (filter != null)
+        {
+            sweepBatched(bodies, pairs, n);
+        }
+        else
+        {
+            for (int a = 0; a < n; a++)
+            {
+                int i = sorted[a];
+                double right = bodies.maxX[i];
+                for (int b = a + 1; b < n && minX[sorted[b]] <= right; b++)
+                {
+                    int j = sorted[b];
+                    if (bodies.interact(i, j) && bodies.minY[i] <= bodies.maxY[j] && bodies.minY[j] <= bodies.maxY[i])
+                    {
+                        pairs.add(Math.min(i, j), Math.max(i, j));
+                    }
+                }
+            }
+        }
+
+        // Remember the order for next time
+        if (size > n)
+        {
+            Arrays.fill(order, n, size, null);
+        }
+        for (int k = 0; k < n; k++)
+        {
+            order[k] = bodies.bodies[sorted[k]];
+        }
+        size = n;
+    }
+
+    /**
+     * Merges the runs of sorted from up to but not including mid, and from mid up to but not including to, each of
+     * which is in order of key, into one run in order of key.
+     */
+    private void merge (double[] key, int from, int mid, int to)
+    {
+        if (key[sorted[mid - 1]] <= key[sorted[mid]])
+        {
+            return;
+        }
+        System.arraycopy(sorted, from, scratch, from, to - from);
+        int a = from, b = mid, k = from;
+        while (a < mid && b < to)
+        {
+            sorted[k++] = (key[scratch[b]] < key[scratch[a]]) ? scratch[b++] : scratch[a++];
+        }
+        while (a < mid)
+        {
+            sorted[k++] = scratch[a++];
+        }
+        while (b < to)
+        {
+            sorted[k++] = scratch[b++];
+        }
+    }
+
+    /**
+     * Sweeps the n sorted bodies, testing each against those that overlap it along the x-axis with the filter.
+     */
+    private void sweepBatched (CollisionBodies bodies, CollisionPairs pairs, int n)
+    {
+        filter.gather(bodies, sorted, n);
+        survivors = filter.outputFor(survivors);
+        for (int a = 0; a < n; a++)
+        {
+            int i = sorted[a];
+            double right = bodies.maxX[i];
+            int end = a + 1;
+            while (end < n && bodies.minX[sorted[end]] <= right)
+            {
+                end++;
+            }
+            int found = filter.test(a, a + 1, end, survivors);
+            for (int k = 0; k < found; k++)
+            {
+                int j = sorted[survivors[k]];
+                pairs.add(Math.min(i, j), Math.max(i, j));
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package asteroids.game;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Times the phases of every move of a game and counts what goes on in it: the participants of each type, the pairs
+ * tested for collisions, the collisions resolved and the timers scheduled. The durations of each phase are kept in a
+ * LatencyHistogram. A game's ParticipantState has one of these, which its GameSession exposes.
+ *
+ * The game thread records every phase but two: CAPTURE is recorded by the thread that publishes snapshots, and PAINT
+ * by the thread that paints them, which are the game thread and the Swing event dispatch thread in a Controller.
+ * Recording costs a call to System.nanoTime and a few stores, and takes no lock. Any thread may read the metrics, and
+ * they can be read over JMX once registered, or over HTTP through a MetricsServer.
+ */
+public class TickMetrics implements TickMetricsMBean
+{
+    /** The phases of a move */
+    final static int COMMANDS = 0, TRANSITIONS = 1, INPUT = 2, AIM = 3, TIMERS = 4, MOVE = 5, COLLIDE = 6, UPDATE = 7,
+            TICK = 8, CAPTURE = 9, PAINT = 10;
+
+    /** The name of each phase */
+    final static String[] PHASES = { "commands", "transitions", "input", "aim", "timers", "move", "collide", "update",
+            "tick", "capture", "paint" };
+
+    /** The name of each collision layer, by its index, or null if it is not used */
+    final static String[] TYPES = new String[32];
+
+    static
+    {
+        TYPES[CollisionLayer.indexOf(CollisionLayer.SHIP)] = "ship";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.ASTEROID)] = "asteroid";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.BULLET)] = "bullet";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.ALIEN_SHIP)] = "alienShip";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.ALIEN_BULLET)] = "alienBullet";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.SUPPLY)] = "supply";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.DEBRIS)] = "debris";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.STAR)] = "star";
+        TYPES[CollisionLayer.indexOf(CollisionLayer.OTHER)] = "other";
+    }
+
+    /** Positions in counters */
+    private final static int PAIRS = 0, COLLISIONS = 1, TIMERS_SCHEDULED = 2;
+
+    /** The durations of each phase */
+    private final LatencyHistogram[] phases;
+
+    /** The running totals, written only by the game thread */
+    private final AtomicLongArray counters;
+
+    /** The number of active participants in each collision layer, by its index, as of the end of the last move */
+    private final AtomicIntegerArray participants;
+
+    /**
+     * Creates metrics with nothing recorded.
+     */
+    TickMetrics ()
+    {
+        phases = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < phases.length; i++)
+        {
+            phases[i] = new LatencyHistogram();
+        }
+        counters = new AtomicLongArray(3);
+        participants = new AtomicIntegerArray(32);
+    }
+
+    /**
+     * Records the time from mark until now as a duration of the phase, and returns now, which can be the mark of the
+     * next phase.
+     */
+    long lap (int phase, long mark)
+    {
+        long now = System.nanoTime();
+        phases[phase].record(now - mark);
+        return now;
+    }
+
+    /**
+     * Counts pairs tested for collisions and collisions resolved.
+     */
+    void countCollisions (int pairs, int collisions)
+    {
+        counters.lazySet(PAIRS, counters.get(PAIRS) + pairs);
+        counters.lazySet(COLLISIONS, counters.get(COLLISIONS) + collisions);
+    }
+
+    /**
+     * Records the number of timers that have been scheduled so far, and the number of active participants in each
+     * collision layer.
+     */
+    void countParticipants (long timersScheduled, int[] live)
+    {
+        counters.lazySet(TIMERS_SCHEDULED, timersScheduled);
+        for (int i = 0; i < live.length; i++)
+        {
+            participants.lazySet(i, live[i]);
+        }
+    }
+
+    /**
+     * Returns the histogram of the phase.
+     */
+    LatencyHistogram histogram (int phase)
+    {
+        return phases[phase];
+    }
+
+    /**
+     * Returns the number of the named phase, or throws an IllegalArgumentException if there is none.
+     */
+    private static int phaseNamed (String name)
+    {
+        for (int i = 0; i < PHASES.length; i++)
+        {
+            if (PHASES[i].equals(name))
+            {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("No phase " + name);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under the name asteroids:type=TickMetrics,session=session,
+     * and returns that name.
+     */
+    public ObjectName register (String session) throws JMException
+    {
+        ObjectName name = new ObjectName("asteroids:type=TickMetrics,session=" + ObjectName.quote(session));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        return name;
+    }
+
+    @Override
+    public String[] getPhases ()
+    {
+        return PHASES.clone();
+    }
+
+    @Override
+    public long getTicks ()
+    {
+        return phases[TICK].getCount();
+    }
+
+    @Override
+    public long getPairsTested ()
+    {
+        return counters.get(PAIRS);
+    }
+
+    @Override
+    public long getCollisionsResolved ()
+    {
+        return counters.get(COLLISIONS);
+    }
+
+    @Override
+    public long getTimersScheduled ()
+    {
+        return counters.get(TIMERS_SCHEDULED);
+    }
+
+    @Override
+    public int getParticipants ()
+    {
+        int total = 0;
+        for (int i = 0; i < participants.length(); i++)
+        {
+            total += participants.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public String[] getParticipantTypes ()
+    {
+        ArrayList<String> types = new ArrayList<String>();
+        for (String type : TYPES)
+        {
+            if (type != null)
+            {
+                types.add(type);
+            }
+        }
+        return types.toArray(new String[types.size()]);
+    }
+
+    @Override
+    public int getParticipantCount (String type)
+    {
+        for (int i = 0; i < TYPES.length; i++)
+        {
+            if (type.equals(TYPES[i]))
+            {
+                return participants.get(i);
+            }
+        }
+        throw new IllegalArgumentException("No participant type " + type);
+    }
+
+    @Override
+    public double getMeanMicros (String phase)
+    {
+        LatencyHistogram histogram = phases[phaseNamed(phase)];
+        long count = histogram.getCount();
+        return (count == 0) ? 0 : histogram.getSum() / 1000.0 / count;
+    }
+
+    @Override
+    public long getPercentileNanos (String phase, double percentile)
+    {
+        return phases[phaseNamed(phase)].getPercentile(percentile / 100);
+    }
+
+    @Override
+    public long getMaxNanos (String phase)
+    {
+        return phases[phaseNamed(phase)].getMax();
+    }
+
+    @Override
+    public String getSummary ()
+    {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format(Locale.ROOT, "%-12s %10s %10s %10s %10s %10s%n", "phase", "count", "mean us",
+                "p50 us", "p99 us", "max us"));
+        for (int i = 0; i < PHASES.length; i++)
+        {
+            LatencyHistogram histogram = phases[i];
+            summary.append(String.format(Locale.ROOT, "%-12s %10d %10.1f %10.1f %10.1f %10.1f%n", PHASES[i],
+                    histogram.getCount(), getMeanMicros(PHASES[i]), histogram.getPercentile(0.5) / 1000.0,
+                    histogram.getPercentile(0.99) / 1000.0, histogram.getMax() / 1000.0));
+        }
+        summary.append(String.format(Locale.ROOT, "%d participants, %d pairs tested, %d collisions, %d timers%n",
+                getParticipants(), getPairsTested(), getCollisionsResolved(), getTimersScheduled()));
+        return summary.toString();
+    }
+}
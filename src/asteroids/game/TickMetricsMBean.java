@@ -0,0 +1,68 @@
+package asteroids.game;
+
+/**
+ * The management interface of TickMetrics, through which JMX clients such as jconsole read the timings and counts of
+ * a running game. Durations are in nanoseconds unless the name says otherwise.
+ */
+public interface TickMetricsMBean
+{
+    /**
+     * Returns the names of the timed phases of a move
+     */
+    String[] getPhases ();
+
+    /**
+     * Returns the number of moves made
+     */
+    long getTicks ();
+
+    /**
+     * Returns the number of candidate pairs of participants tested for collisions
+     */
+    long getPairsTested ();
+
+    /**
+     * Returns the number of collisions that participants were told about
+     */
+    long getCollisionsResolved ();
+
+    /**
+     * Returns the number of countdown timers scheduled
+     */
+    long getTimersScheduled ();
+
+    /**
+     * Returns the number of active participants as of the end of the last move
+     */
+    int getParticipants ();
+
+    /**
+     * Returns the names of the types of participant
+     */
+    String[] getParticipantTypes ();
+
+    /**
+     * Returns the number of active participants of the named type as of the end of the last move
+     */
+    int getParticipantCount (String type);
+
+    /**
+     * Returns the mean duration of the named phase in microseconds
+     */
+    double getMeanMicros (String phase);
+
+    /**
+     * Returns a duration that the given percentage of the named phase's durations are no longer than
+     */
+    long getPercentileNanos (String phase, double percentile);
+
+    /**
+     * Returns the longest duration of the named phase
+     */
+    long getMaxNanos (String phase);
+
+    /**
+     * Returns a table of the count, mean, median, 99th percentile and maximum duration of every phase
+     */
+    String getSummary ();
+}
@@ -0,0 +1,159 @@
+package asteroids.game;
+
+/**
+ * A hashed timing wheel that runs ParticipantCountdownTimers in ticks of the game clock. The wheel is a ring of slots,
+ * each holding a doubly linked list of the timers that come due when the wheel reaches it. A timer more than one turn
+ * of the wheel away also counts the turns it still has to wait. Scheduling and cancelling a timer take constant time,
+ * and each tick touches only the timers in one slot.
+ */
+class TimerWheel
+{
+    /** Number of slots, a power of two */
+    private static final int SLOTS = 256;
+
+    /** The first timer in each slot */
+    private final ParticipantCountdownTimer[] slots;
+
+    /** Number of ticks that have passed */
+    private long tick;
+
+    /** Number of timers waiting to go off */
+    private int size;
+
+    /** Number of timers that have ever been scheduled */
+    private long scheduled;
+
+    /**
+     * Creates an empty wheel.
+     */
+    TimerWheel ()
+    {
+        slots = new ParticipantCountdownTimer[SLOTS];
+    }
+
+    /**
+     * Converts a delay in milliseconds to the number of ticks of the game clock that cover it, which is at least one.
+     */
+    static int ticksFor (int msecs)
+    {
+        return Math.max(1, (msecs + Constants.FRAME_INTERVAL - 1) / Constants.FRAME_INTERVAL);
+    }
+
+    /**
+     * Returns the number of timers waiting to go off
+     */
+    int size ()
+    {
+        return size;
+    }
+
+    /**
+     * Returns the number of timers that have ever been scheduled
+     */
+    long scheduled ()
+    {
+        return scheduled;
+    }
+
+    /**
+     * Schedules the timer to go off the given number of ticks from now, which must be at least one.
+     */
+    void schedule (ParticipantCountdownTimer timer, int ticks)
+    {
+        long due = tick + ticks;
+        int slot = (int) (due & (SLOTS - 1));
+        timer.rounds = (ticks - 1) / SLOTS;
+        timer.slot = slot;
+        timer.prev = null;
+        timer.next = slots[slot];
+        if (timer.next != null)
+        {
+            timer.next.prev = timer;
+        }
+        slots[slot] = timer;
+        size++;
+        scheduled++;
+    }
+
+    /**
+     * Removes a timer that is waiting to go off.
+     */
+    void cancel (ParticipantCountdownTimer timer)
+    {
+        if (timer.prev != null)
+        {
+            timer.prev.next = timer.next;
+        }
+        else
+        {
+            slots[timer.slot] = timer.next;
+        }
+        if (timer.next != null)
+        {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.slot = -1;
+        size--;
+    }
+
+    /**
+     * Moves the wheel forward one tick and sets off the timers that come due, in the order they were scheduled. A
+     * timer that is scheduled while this runs goes off on a later tick.
+     */
+    void advance ()
+    {
+        tick++;
+        int slot = (int) (tick & (SLOTS - 1));
+
+        // Take the due timers out of the slot first, so that the callbacks can schedule and cancel freely
+        ParticipantCountdownTimer due = null;
+        ParticipantCountdownTimer timer = slots[slot];
+        while (timer != null)
+        {
+            ParticipantCountdownTimer next = timer.next;
+            if (timer.rounds == 0)
+            {
+                cancel(timer);
+                timer.next = due;
+                due = timer;
+            }
+            else
+            {
+                timer.rounds--;
+            }
+            timer = next;
+        }
+
+        // The slot lists are newest first, so the due list is back in scheduling order
+        while (due != null)
+        {
+            ParticipantCountdownTimer next = due.next;
+            due.next = null;
+            due.fire();
+            due = next;
+        }
+    }
+
+    /**
+     * Drops every timer without setting it off.
+     */
+    void clear ()
+    {
+        for (int i = 0; i < SLOTS; i++)
+        {
+            ParticipantCountdownTimer timer = slots[i];
+            while (timer != null)
+            {
+                ParticipantCountdownTimer next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.slot = -1;
+                timer = next;
+            }
+            slots[i] = null;
+        }
+        size = 0;
+    }
+}
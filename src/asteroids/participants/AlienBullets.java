@@ -4,26 +4,88 @@ import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
 public class AlienBullets extends Participant implements ShipDestroyer, AsteroidDestroyer
 {
 
-    private Shape outline;
+    /** The outline shared by every alien bullet, a single pixel */
+    private final static Shape OUTLINE = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
+
+    /** The collision shape of the outline */
+    private final static CollisionShape SHAPE = CollisionShape.create(OUTLINE);
     
     public AlienBullets (double x, double y, double direction)
+    {
+        this();
+        init(x, y, direction);
+    }
+
+    /**
+     * Creates a bullet for a pool, which initializes it when it is handed out.
+     */
+    AlienBullets ()
+    {
+    }
+
+    /**
+     * Returns a bullet from the controller's pool at x and y moving in direction.
+     */
+    public static AlienBullets create (GameSession controller, double x, double y, double direction)
+    {
+        AlienBullets bullet = controller.getPools().alienBullets.obtain();
+        bullet.init(x, y, direction);
+        return bullet;
+    }
+
+    /**
+     * Puts the bullet at x and y moving in direction and starts its timer.
+     */
+    private void init (double x, double y, double direction)
     {
         this.setPosition(x, y);
         this.setVelocity(14.0, direction);
-        this.outline = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
         new ParticipantCountdownTimer(this, this, 2000);
     }
     
     @Override
     protected Shape getOutline ()
     {
-        return this.outline;
+        return OUTLINE;
+    }
+
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return SHAPE;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.ALIEN_BULLET;
+    }
+
+    /**
+     * Alien bullets react to ships and asteroids
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.SHIP | CollisionLayer.ASTEROID;
+    }
+
+    /**
+     * The outline is a single pixel, so collisions treat it as a point
+     */
+    @Override
+    protected boolean isPointLike ()
+    {
+        return true;
     }
     
     /*
@@ -1,23 +1,32 @@
 package asteroids.participants;
 
-import static asteroids.game.Constants.RANDOM;
+import static asteroids.game.Constants.SHIP_ORIENTATIONS;
 import java.awt.Shape;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
-import java.util.Random;
+import java.util.SplittableRandom;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
-import asteroids.game.Controller;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
 public class AlienShip extends Participant implements ShipDestroyer, AsteroidDestroyer
 {
+    /** The outlines of the large and small ships */
+    private final static Shape LARGE_OUTLINE = createOutline(1), SMALL_OUTLINE = createOutline(0.5);
+
+    /** The collision shapes of the outlines, rotated in advance to every direction a ship can point */
+    private final static CollisionShape LARGE_SHAPE = CollisionShape.oriented(LARGE_OUTLINE, SHIP_ORIENTATIONS);
+    private final static CollisionShape SMALL_SHAPE = CollisionShape.oriented(SMALL_OUTLINE, SHIP_ORIENTATIONS);
+
     /** The outline of the ship */
     private Shape outline;
 
     /** Game controller */
-    private Controller controller;
+    private GameSession controller;
 
     private boolean changeDirection = false;
 
@@ -26,52 +35,25 @@ public class AlienShip extends Participant implements ShipDestroyer, AsteroidDes
     /**
      * Constructs a ship at the specified coordinates that is pointed in the given direction.
      */
-    public AlienShip (int x, int y, double direction, Controller controller, int level)
+    public AlienShip (int x, int y, double direction, GameSession controller, int level)
     {
         this.size = level - 1;
         this.controller = controller;
         setPosition(x, y);
-        setRotation(direction);
+        setRotation(quantize(direction, SHIP_ORIENTATIONS));
 
-        Path2D.Double poly = new Path2D.Double();
         if (size == 1)
         {
-            poly.moveTo(20.0, 0.0);
-            poly.lineTo(9.0, 9.0);
-            poly.lineTo(-9.0, 9.0);
-            poly.lineTo(-20.0, 0.0);
-            poly.lineTo(20.0, 0.0);
-            poly.lineTo(-20.0, 0.0);
-            poly.lineTo(-9.0, -9.0);
-            poly.lineTo(9.0, -9.0);
-            poly.lineTo(-9.0, -9.0);
-            poly.lineTo(-5.0, -17.0);
-            poly.lineTo(5.0, -17.0);
-            poly.lineTo(9.0, -9.0);
-            
+            outline = LARGE_OUTLINE;
             controller.playSound("/sounds/saucerBig.wav");
             new ParticipantCountdownTimer(this, "Big", 400);
         }
         else
         {
-            poly.moveTo(20.0 / 2, 0.0 / 2);
-            poly.lineTo(9.0 / 2, 9.0 / 2);
-            poly.lineTo(-9.0 / 2, 9.0 / 2);
-            poly.lineTo(-20.0 / 2, 0.0 / 2);
-            poly.lineTo(20.0 / 2, 0.0 / 2);
-            poly.lineTo(-20.0 / 2, 0.0 / 2);
-            poly.lineTo(-9.0 / 2, -9.0 / 2);
-            poly.lineTo(9.0 / 2, -9.0 / 2);
-            poly.lineTo(-9.0 / 2, -9.0 / 2);
-            poly.lineTo(-5.0 / 2, -17.0 / 2);
-            poly.lineTo(5.0 / 2, -17.0 / 2);
-            poly.lineTo(9.0 / 2, -9.0 / 2);
-            
+            outline = SMALL_OUTLINE;
             controller.playSound("/sounds/saucerSmall.wav");
             new ParticipantCountdownTimer(this, "Small", 400);
         }
-        poly.closePath();
-        outline = poly;
 
         new ParticipantCountdownTimer(this, "fire", 2000);
         new ParticipantCountdownTimer(this, "changeDirection", 3000);
@@ -97,20 +79,63 @@ public class AlienShip extends Participant implements ShipDestroyer, AsteroidDes
         return point.getY();
     }
 
+    /**
+     * Creates the outline of a ship at the given scale. The outlines are shared by all alien ships and must not be
+     * changed.
+     */
+    private static Shape createOutline (double scale)
+    {
+        Path2D.Double poly = new Path2D.Double();
+        poly.moveTo(20.0 * scale, 0.0 * scale);
+        poly.lineTo(9.0 * scale, 9.0 * scale);
+        poly.lineTo(-9.0 * scale, 9.0 * scale);
+        poly.lineTo(-20.0 * scale, 0.0 * scale);
+        poly.lineTo(20.0 * scale, 0.0 * scale);
+        poly.lineTo(-20.0 * scale, 0.0 * scale);
+        poly.lineTo(-9.0 * scale, -9.0 * scale);
+        poly.lineTo(9.0 * scale, -9.0 * scale);
+        poly.lineTo(-9.0 * scale, -9.0 * scale);
+        poly.lineTo(-5.0 * scale, -17.0 * scale);
+        poly.lineTo(5.0 * scale, -17.0 * scale);
+        poly.lineTo(9.0 * scale, -9.0 * scale);
+        poly.closePath();
+        return poly;
+    }
+
     @Override
     protected Shape getOutline ()
     {
         return outline;
     }
 
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return (outline == LARGE_OUTLINE) ? LARGE_SHAPE : SMALL_SHAPE;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.ALIEN_SHIP;
+    }
+
+    /**
+     * Alien ships react to ships, asteroids and bullets
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.SHIP | CollisionLayer.ASTEROID | CollisionLayer.BULLET;
+    }
+
     /**
-     * Customizes the base move method by imposing friction
+     * Customizes the base move method by changing direction when it is time to
      */
     @Override
-    public void move ()
+    protected void afterMove ()
     {
         int num;
-        super.move();
         if (changeDirection)
         {
             if (this.getDirection() != 0)
@@ -122,7 +147,7 @@ public class AlienShip extends Participant implements ShipDestroyer, AsteroidDes
             else
             {
                 this.changeDirection = false;
-                num = RANDOM.nextInt(1);
+                num = controller.getRandom().aliens.nextInt(1);
                 if (num == 0)
                 {
                     this.setDirection(180/Math.PI);
@@ -142,13 +167,13 @@ public class AlienShip extends Participant implements ShipDestroyer, AsteroidDes
      */
     public void fire ()
     {
-        controller.addParticipant(new AlienBullets(this.getX(), this.getY(), getPlayerDirection()));
+        controller.addParticipant(AlienBullets.create(controller, this.getX(), this.getY(), getPlayerDirection()));
         controller.playSound("/sounds/fire.wav");
     }
 
     public double getPlayerDirection ()
     {
-        Random rng = new Random();
+        SplittableRandom rng = controller.getRandom().aliens;
         double direction = rng.nextInt(6);
         if (size == 1)
         {
@@ -179,8 +204,11 @@ public class AlienShip extends Participant implements ShipDestroyer, AsteroidDes
             Participant.expire(this);
 
             this.controller.AlienShipDestroyed();
-            controller.addParticipant(new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
-            controller.addParticipant(new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
+            SplittableRandom effects = controller.getRandom().effects;
+            controller.addParticipant(
+                    AsteroidDebris.create(controller, this.getX(), this.getY(), 2 * Math.PI * effects.nextDouble()));
+            controller.addParticipant(
+                    AsteroidDebris.create(controller, this.getX(), this.getY(), 2 * Math.PI * effects.nextDouble()));
             if (size == 1)
             {
                 this.controller.scoreControl(200);
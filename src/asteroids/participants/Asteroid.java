@@ -2,11 +2,12 @@ package asteroids.participants;
 
 import static asteroids.game.Constants.*;
 import java.awt.Shape;
-import java.awt.geom.*;
-import java.util.Random;
+import java.util.SplittableRandom;
 import asteroids.destroyers.AsteroidDestroyer;
 import asteroids.destroyers.ShipDestroyer;
-import asteroids.game.Controller;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 
 /**
@@ -17,11 +18,14 @@ public class Asteroid extends Participant implements ShipDestroyer
     /** The size of the asteroid (0 = small, 1 = medium, 2 = large) */
     private int size;
 
-    /** The outline of the asteroid */
+    /** The outline of the asteroid, which is shared with every other asteroid of the same variety and size */
     private Shape outline;
 
+    /** The collision shape of the outline, also shared */
+    private CollisionShape shape;
+
     /** The game controller */
-    private Controller controller;
+    private GameSession controller;
 
     /**
      * Throws an IllegalArgumentException if size or variety is out of range.
@@ -30,14 +34,39 @@ public class Asteroid extends Participant implements ShipDestroyer
      * positions it at the provided coordinates with a random rotation. Its velocity has the given speed but is in a
      * random direction.
      */
-    public Asteroid (int variety, int size, double x, double y, int speed, Controller controller)
+    public Asteroid (int variety, int size, double x, double y, int speed, GameSession controller)
+    {
+        init(variety, size, x, y, speed, controller);
+    }
+
+    /**
+     * Creates an asteroid for a pool, which initializes it when it is handed out.
+     */
+    Asteroid ()
+    {
+    }
+
+    /**
+     * Returns an asteroid from the controller's pool, set up as the constructor would set up a new one.
+     */
+    public static Asteroid create (int variety, int size, double x, double y, int speed, GameSession controller)
+    {
+        Asteroid asteroid = controller.getPools().asteroids.obtain();
+        asteroid.init(variety, size, x, y, speed, controller);
+        return asteroid;
+    }
+
+    /**
+     * Sets up the asteroid as described for the constructor.
+     */
+    private void init (int variety, int size, double x, double y, int speed, GameSession controller)
     {
         // Make sure size and variety are valid
         if (size < 0 || size > 2)
         {
             throw new IllegalArgumentException("Invalid asteroid size: " + size);
         }
-        else if (variety < 0 || variety > 3)
+        else if (variety < 0 || variety >= AsteroidOutlines.VARIETIES)
         {
             throw new IllegalArgumentException();
         }
@@ -46,9 +75,11 @@ public class Asteroid extends Participant implements ShipDestroyer
         this.controller = controller;
         this.size = size;
         setPosition(x, y);
-        setVelocity(speed, RANDOM.nextDouble() * 2 * Math.PI);
-        setRotation(2 * Math.PI * RANDOM.nextDouble());
-        createAsteroidOutline(variety, size);
+        SplittableRandom random = controller.getRandom().asteroids;
+        setVelocity(speed, random.nextDouble() * 2 * Math.PI);
+        setRotation(2 * Math.PI * random.nextDouble());
+        outline = AsteroidOutlines.outline(variety, size);
+        shape = AsteroidOutlines.shape(variety, size);
     }
 
     @Override
@@ -57,76 +88,25 @@ public class Asteroid extends Participant implements ShipDestroyer
         return outline;
     }
 
-    /**
-     * Creates the outline of the asteroid based on its variety and size.
-     */
-    private void createAsteroidOutline (int variety, int size)
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
     {
-        // This will contain the outline
-        Path2D.Double poly = new Path2D.Double();
-
-        // Fill out according to variety
-        if (variety == 0)
-        {
-            poly.moveTo(0, -30);
-            poly.lineTo(28, -15);
-            poly.lineTo(20, 20);
-            poly.lineTo(4, 8);
-            poly.lineTo(-1, 30);
-            poly.lineTo(-12, 15);
-            poly.lineTo(-5, 2);
-            poly.lineTo(-25, 7);
-            poly.lineTo(-10, -25);
-            poly.closePath();
-        }
-        else if (variety == 1)
-        {
-            poly.moveTo(10, -28);
-            poly.lineTo(7, -16);
-            poly.lineTo(30, -9);
-            poly.lineTo(30, 9);
-            poly.lineTo(10, 13);
-            poly.lineTo(5, 30);
-            poly.lineTo(-8, 28);
-            poly.lineTo(-6, 6);
-            poly.lineTo(-27, 12);
-            poly.lineTo(-30, -11);
-            poly.lineTo(-6, -15);
-            poly.lineTo(-6, -28);
-            poly.closePath();
-        }
-        else if (variety == 2)
-        {
-            poly.moveTo(10, -30);
-            poly.lineTo(30, 0);
-            poly.lineTo(15, 30);
-            poly.lineTo(0, 15);
-            poly.lineTo(-15, 30);
-            poly.lineTo(-30, 0);
-            poly.lineTo(-10, -30);
-            poly.closePath();
-        }
-        else
-        {
-            poly.moveTo(30, -18);
-            poly.lineTo(5, 5);
-            poly.lineTo(30, 15);
-            poly.lineTo(15, 30);
-            poly.lineTo(0, 25);
-            poly.lineTo(-15, 30);
-            poly.lineTo(-25, 8);
-            poly.lineTo(-10, -25);
-            poly.lineTo(0, -30);
-            poly.lineTo(10, -30);
-            poly.closePath();
-        }
+        return shape;
+    }
 
-        // Scale to the desired size
-        double scale = ASTEROID_SCALE[size];
-        poly.transform(AffineTransform.getScaleInstance(scale, scale));
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.ASTEROID;
+    }
 
-        // Save the outline
-        outline = poly;
+    /**
+     * Asteroids react to the AsteroidDestroyers: ships, bullets, alien ships and alien bullets
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.SHIP | CollisionLayer.BULLET | CollisionLayer.ALIEN_SHIP | CollisionLayer.ALIEN_BULLET;
     }
 
     /**
@@ -147,29 +127,31 @@ public class Asteroid extends Participant implements ShipDestroyer
     {
         if (p instanceof AsteroidDestroyer)
         {
+            SplittableRandom random = controller.getRandom().asteroids;
+            SplittableRandom effects = controller.getRandom().effects;
             if (this.getSize() == 2)
             {
                 controller.addParticipant(
-                        new Asteroid(0, 1, this.getX(), this.getY(), RANDOM.nextInt(3 + 1) + 3, controller));
+                        Asteroid.create(0, 1, this.getX(), this.getY(), random.nextInt(3 + 1) + 3, controller));
                 controller.addParticipant(
-                        new Asteroid(0, 1, this.getX(), this.getY(), RANDOM.nextInt(3 + 1) + 3, controller));
+                        Asteroid.create(0, 1, this.getX(), this.getY(), random.nextInt(3 + 1) + 3, controller));
                 controller.addParticipant(
-                        new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
+                        AsteroidDebris.create(controller, getX(), getY(), 2 * Math.PI * effects.nextDouble()));
                 controller.addParticipant(
-                        new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
+                        AsteroidDebris.create(controller, getX(), getY(), 2 * Math.PI * effects.nextDouble()));
                 controller.scoreControl(20);
                 controller.playSound("/sounds/bangLarge.wav");
             }
             else if (this.getSize() == 1)
             {
                 controller.addParticipant(
-                        new Asteroid(0, 0, this.getX(), this.getY(), RANDOM.nextInt(5 + 1) + 3, controller));
+                        Asteroid.create(0, 0, this.getX(), this.getY(), random.nextInt(5 + 1) + 3, controller));
                 controller.addParticipant(
-                        new Asteroid(0, 0, this.getX(), this.getY(), RANDOM.nextInt(5 + 1) + 3, controller));
+                        Asteroid.create(0, 0, this.getX(), this.getY(), random.nextInt(5 + 1) + 3, controller));
                 controller.addParticipant(
-                        new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
+                        AsteroidDebris.create(controller, getX(), getY(), 2 * Math.PI * effects.nextDouble()));
                 controller.addParticipant(
-                        new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
+                        AsteroidDebris.create(controller, getX(), getY(), 2 * Math.PI * effects.nextDouble()));
                 controller.scoreControl(50);
                 controller.playSound("/sounds/bangMedium.wav");
             }
@@ -179,8 +161,10 @@ public class Asteroid extends Participant implements ShipDestroyer
                 controller.scoreControl(100);
             }
 
-            controller.addParticipant(new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
-            controller.addParticipant(new AsteroidDebris(this.getX(), this.getY(), 2 * Math.PI * RANDOM.nextDouble()));
+            controller.addParticipant(
+                    AsteroidDebris.create(controller, this.getX(), this.getY(), 2 * Math.PI * effects.nextDouble()));
+            controller.addParticipant(
+                    AsteroidDebris.create(controller, this.getX(), this.getY(), 2 * Math.PI * effects.nextDouble()));
 
             // Expire the asteroid
             Participant.expire(this);
@@ -200,10 +184,10 @@ public class Asteroid extends Participant implements ShipDestroyer
 
     public void dropLoot ()
     {
-        Random rng = new Random();
+        SplittableRandom rng = controller.getRandom().asteroids;
         if (rng.nextInt(100) < 20)
         {
-            controller.addParticipant(new supply(rng.nextInt(3), this.getX(), this.getY(), controller));
+            controller.addParticipant(supply.create(rng.nextInt(3), this.getX(), this.getY(), controller));
         }
     }
 }
@@ -2,28 +2,90 @@ package asteroids.participants;
 
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
 public class AsteroidDebris extends Participant
 {
-    private Shape outline;
+    /** The outline shared by every piece of debris, a single pixel */
+    private final static Shape OUTLINE = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
+
+    /** The collision shape of the outline */
+    private final static CollisionShape SHAPE = CollisionShape.create(OUTLINE);
 
     /*
      * Creates new piece of debris at x and y moving in direction that disappears at the end of the timer.
      */
     public AsteroidDebris (double x, double y, double direction)
+    {
+        this();
+        init(x, y, direction);
+    }
+
+    /**
+     * Creates debris for a pool, which initializes it when it is handed out.
+     */
+    AsteroidDebris ()
+    {
+    }
+
+    /**
+     * Returns debris from the controller's pool at x and y moving in direction.
+     */
+    public static AsteroidDebris create (GameSession controller, double x, double y, double direction)
+    {
+        AsteroidDebris debris = controller.getPools().debris.obtain();
+        debris.init(x, y, direction);
+        return debris;
+    }
+
+    /**
+     * Puts the debris at x and y moving in direction and starts its timer.
+     */
+    private void init (double x, double y, double direction)
     {
         this.setPosition(x, y);
         this.setVelocity(1.0, direction);
-        this.outline = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
         new ParticipantCountdownTimer(this, this, 1000);
     }
 
     @Override
     protected Shape getOutline ()
     {
-        return outline;
+        return OUTLINE;
+    }
+
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return SHAPE;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.DEBRIS;
+    }
+
+    /**
+     * Debris reacts to nothing
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.NONE;
+    }
+
+    /**
+     * The outline is a single pixel, so collisions treat it as a point
+     */
+    @Override
+    protected boolean isPointLike ()
+    {
+        return true;
     }
 
     /*
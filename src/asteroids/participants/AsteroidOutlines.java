@@ -0,0 +1,128 @@
+package asteroids.participants;
+
+import static asteroids.game.Constants.*;
+import java.awt.Shape;
+import java.awt.geom.*;
+import asteroids.game.CollisionShape;
+
+/**
+ * The outlines of the asteroids, one for each of the four varieties at each of the three sizes. They are built once,
+ * when the class is loaded, together with their collision shapes, and are shared by every Asteroid. Neither the
+ * outlines nor the shapes may be changed.
+ */
+final class AsteroidOutlines
+{
+    /** Number of varieties */
+    final static int VARIETIES = 4;
+
+    /** The outline for each variety and size */
+    private final static Shape[][] OUTLINES = new Shape[VARIETIES][ASTEROID_SCALE.length];
+
+    /** The collision shape of each outline */
+    private final static CollisionShape[][] SHAPES = new CollisionShape[VARIETIES][ASTEROID_SCALE.length];
+
+    static
+    {
+        for (int variety = 0; variety < VARIETIES; variety++)
+        {
+            for (int size = 0; size < ASTEROID_SCALE.length; size++)
+            {
+                OUTLINES[variety][size] = createOutline(variety, size);
+                SHAPES[variety][size] = CollisionShape.create(OUTLINES[variety][size]);
+            }
+        }
+    }
+
+    /**
+     * There are no instances.
+     */
+    private AsteroidOutlines ()
+    {
+    }
+
+    /**
+     * Returns the outline of the given variety (0 through 3) and size (0 = small, 1 = medium, 2 = large)
+     */
+    static Shape outline (int variety, int size)
+    {
+        return OUTLINES[variety][size];
+    }
+
+    /**
+     * Returns the collision shape of the outline of the given variety and size
+     */
+    static CollisionShape shape (int variety, int size)
+    {
+        return SHAPES[variety][size];
+    }
+
+    /**
+     * Creates the outline of the asteroid based on its variety and size.
+     */
+    private static Shape createOutline (int variety, int size)
+    {
+        // This will contain the outline
+        Path2D.Double poly = new Path2D.Double();
+
+        // Fill out according to variety
+        if (variety == 0)
+        {
+            poly.moveTo(0, -30);
+            poly.lineTo(28, -15);
+            poly.lineTo(20, 20);
+            poly.lineTo(4, 8);
+            poly.lineTo(-1, 30);
+            poly.lineTo(-12, 15);
+            poly.lineTo(-5, 2);
+            poly.lineTo(-25, 7);
+            poly.lineTo(-10, -25);
+            poly.closePath();
+        }
+        else if (variety == 1)
+        {
+            poly.moveTo(10, -28);
+            poly.lineTo(7, -16);
+            poly.lineTo(30, -9);
+            poly.lineTo(30, 9);
+            poly.lineTo(10, 13);
+            poly.lineTo(5, 30);
+            poly.lineTo(-8, 28);
+            poly.lineTo(-6, 6);
+            poly.lineTo(-27, 12);
+            poly.lineTo(-30, -11);
+            poly.lineTo(-6, -15);
+            poly.lineTo(-6, -28);
+            poly.closePath();
+        }
+        else if (variety == 2)
+        {
+            poly.moveTo(10, -30);
+            poly.lineTo(30, 0);
+            poly.lineTo(15, 30);
+            poly.lineTo(0, 15);
+            poly.lineTo(-15, 30);
+            poly.lineTo(-30, 0);
+            poly.lineTo(-10, -30);
+            poly.closePath();
+        }
+        else
+        {
+            poly.moveTo(30, -18);
+            poly.lineTo(5, 5);
+            poly.lineTo(30, 15);
+            poly.lineTo(15, 30);
+            poly.lineTo(0, 25);
+            poly.lineTo(-15, 30);
+            poly.lineTo(-25, 8);
+            poly.lineTo(-10, -25);
+            poly.lineTo(0, -30);
+            poly.lineTo(10, -30);
+            poly.closePath();
+        }
+
+        // Scale to the desired size
+        double scale = ASTEROID_SCALE[size];
+        poly.transform(AffineTransform.getScaleInstance(scale, scale));
+        return poly;
+    }
+}
@@ -2,6 +2,9 @@
 package asteroids.participants;
 
 import asteroids.destroyers.AsteroidDestroyer;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 import java.awt.Shape;
@@ -10,23 +13,82 @@ import java.awt.geom.Ellipse2D;
 public class Bullets extends Participant implements AsteroidDestroyer
 {
 
-    private Shape outline;
+    /** The outline shared by every bullet, a single pixel */
+    private final static Shape OUTLINE = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
+
+    /** The collision shape of the outline */
+    private final static CollisionShape SHAPE = CollisionShape.create(OUTLINE);
 
     /*
      * Creates new bullet at x and y moving in direction that disappears at the end of the timer.
      */
     public Bullets (double x, double y, double direction)
+    {
+        this();
+        init(x, y, direction);
+    }
+
+    /**
+     * Creates a bullet for a pool, which initializes it when it is handed out.
+     */
+    Bullets ()
+    {
+    }
+
+    /**
+     * Returns a bullet from the controller's pool at x and y moving in direction.
+     */
+    public static Bullets create (GameSession controller, double x, double y, double direction)
+    {
+        Bullets bullet = controller.getPools().bullets.obtain();
+        bullet.init(x, y, direction);
+        return bullet;
+    }
+
+    /**
+     * Puts the bullet at x and y moving in direction and starts its timer.
+     */
+    private void init (double x, double y, double direction)
     {
         this.setPosition(x, y);
         this.setVelocity(14.0, direction);
-        this.outline = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
         new ParticipantCountdownTimer(this, this, 1000);
     }
 
     @Override
     protected Shape getOutline ()
     {
-        return this.outline;
+        return OUTLINE;
+    }
+
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return SHAPE;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.BULLET;
+    }
+
+    /**
+     * Bullets react to asteroids and alien ships
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.ASTEROID | CollisionLayer.ALIEN_SHIP;
+    }
+
+    /**
+     * The outline is a single pixel, so collisions treat it as a point
+     */
+    @Override
+    protected boolean isPointLike ()
+    {
+        return true;
     }
 
     /*
@@ -0,0 +1,37 @@
+package asteroids.participants;
+
+import asteroids.game.ParticipantPool;
+
+/**
+ * The pools of the participants that a game spawns over and over. Each GameSession has its own, so that games never
+ * share participants.
+ */
+public class ParticipantPools
+{
+    /** Bullets fired by the ship */
+    public final ParticipantPool<Bullets> bullets;
+
+    /** Bullets fired by alien ships */
+    public final ParticipantPool<AlienBullets> alienBullets;
+
+    /** Debris left by explosions */
+    public final ParticipantPool<AsteroidDebris> debris;
+
+    /** Asteroids, including the fragments of split asteroids */
+    public final ParticipantPool<Asteroid> asteroids;
+
+    /** Supplies dropped by destroyed asteroids */
+    public final ParticipantPool<supply> supplies;
+
+    /**
+     * Creates empty pools.
+     */
+    public ParticipantPools ()
+    {
+        bullets = new ParticipantPool<Bullets>(Bullets::new);
+        alienBullets = new ParticipantPool<AlienBullets>(AlienBullets::new);
+        debris = new ParticipantPool<AsteroidDebris>(AsteroidDebris::new);
+        asteroids = new ParticipantPool<Asteroid>(Asteroid::new);
+        supplies = new ParticipantPool<supply>(supply::new);
+    }
+}
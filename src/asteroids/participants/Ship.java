@@ -4,7 +4,9 @@ import static asteroids.game.Constants.*;
 import java.awt.Shape;
 import java.awt.geom.*;
 import asteroids.destroyers.*;
-import asteroids.game.Controller;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
@@ -14,48 +16,57 @@ import asteroids.game.ParticipantCountdownTimer;
 public class Ship extends Participant implements AsteroidDestroyer
 {
     /** The outline of the ship */
-    private Shape outline;
+    private final static Shape OUTLINE = createOutline(false);
     /** The outline of the ship with fire */
-    private Shape forwardOutline;
+    private final static Shape FORWARD_OUTLINE = createOutline(true);
+
+    /** The collision shapes of the outlines, rotated in advance to every direction the ship can point */
+    private final static CollisionShape SHAPE = CollisionShape.oriented(OUTLINE, SHIP_ORIENTATIONS);
+    private final static CollisionShape FORWARD_SHAPE = CollisionShape.oriented(FORWARD_OUTLINE, SHIP_ORIENTATIONS);
 
     /** Game controller */
-    private Controller controller;
+    private GameSession controller;
     /** True if the ship is accelerating */
     private boolean forward;
 
+    /** Reused to compute the position of the nose */
+    private Point2D.Double nose;
+
     /**
      * Constructs a ship at the specified coordinates that is pointed in the given direction.
      */
-    public Ship (int x, int y, double direction, Controller controller)
+    public Ship (int x, int y, double direction, GameSession controller)
     {
         this.controller = controller;
+        nose = new Point2D.Double();
         setPosition(x, y);
         setRotation(direction);
 
-        Path2D.Double poly = new Path2D.Double();
-        poly.moveTo(21, 0);
-        poly.lineTo(-21, 12);
-        poly.lineTo(-14, 10);
-        poly.lineTo(-14, -10);
-        poly.lineTo(-21, -12);
-        poly.closePath();
-        outline = poly;
+        // play the sound in loop every 1 sec
+        new ParticipantCountdownTimer(this, "beat", 1000);
+
+    }
 
-        poly = new Path2D.Double();
+    /**
+     * Creates the outline of the ship, with fire if forward is true. The outlines are shared by all ships and must not
+     * be changed.
+     */
+    private static Shape createOutline (boolean forward)
+    {
+        Path2D.Double poly = new Path2D.Double();
         poly.moveTo(21, 0);
         poly.lineTo(-21, 12);
         poly.lineTo(-14, 10);
-        poly.lineTo(-14, -5);
-        poly.lineTo(-25, 0.);
-        poly.lineTo(-14, 5);
+        if (forward)
+        {
+            poly.lineTo(-14, -5);
+            poly.lineTo(-25, 0.);
+            poly.lineTo(-14, 5);
+        }
         poly.lineTo(-14, -10);
         poly.lineTo(-21, -12);
         poly.closePath();
-        forwardOutline = poly;
-
-        // play the sound in loop every 1 sec
-        new ParticipantCountdownTimer(this, "beat", 1000);
-
+        return poly;
     }
 
     /**
@@ -63,9 +74,7 @@ public class Ship extends Participant implements AsteroidDestroyer
      */
     public double getXNose ()
     {
-        Point2D.Double point = new Point2D.Double(20, 0);
-        transformPoint(point);
-        return point.getX();
+        return locateNose().getX();
     }
 
     /**
@@ -73,9 +82,17 @@ public class Ship extends Participant implements AsteroidDestroyer
      */
     public double getYNose ()
     {
-        Point2D.Double point = new Point2D.Double(20, 0);
-        transformPoint(point);
-        return point.getY();
+        return locateNose().getY();
+    }
+
+    /**
+     * Returns the point on the screen where the ship's nose is located. The point is reused by the next call.
+     */
+    private Point2D.Double locateNose ()
+    {
+        nose.setLocation(20, 0);
+        transformPoint(nose);
+        return nose;
     }
 
     @Override
@@ -83,19 +100,39 @@ public class Ship extends Participant implements AsteroidDestroyer
     {
         if (forward)
         {
-            return forwardOutline;
+            return FORWARD_OUTLINE;
         }
-        return outline;
+        return OUTLINE;
+    }
+
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return (outline == FORWARD_OUTLINE) ? FORWARD_SHAPE : SHAPE;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.SHIP;
+    }
+
+    /**
+     * Ships react to the ShipDestroyers: asteroids, alien ships and alien bullets
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.ASTEROID | CollisionLayer.ALIEN_SHIP | CollisionLayer.ALIEN_BULLET;
     }
 
     /**
      * Customizes the base move method by imposing friction
      */
     @Override
-    public void move ()
+    protected void beforeMove ()
     {
         applyFriction(SHIP_FRICTION);
-        super.move();
     }
 
     /**
@@ -103,7 +140,7 @@ public class Ship extends Participant implements AsteroidDestroyer
      */
     public void turnRight ()
     {
-        rotate(Math.PI / 16);
+        rotate(2 * Math.PI / SHIP_ORIENTATIONS);
     }
 
     /**
@@ -111,7 +148,7 @@ public class Ship extends Participant implements AsteroidDestroyer
      */
     public void turnLeft ()
     {
-        rotate(-Math.PI / 16);
+        rotate(-2 * Math.PI / SHIP_ORIENTATIONS);
     }
 
     /**
@@ -121,7 +158,11 @@ public class Ship extends Participant implements AsteroidDestroyer
     {
         accelerate(SHIP_ACCELERATION);
         controller.playSound("/sounds/thrust.wav");
-        forward = true;
+        if (!forward)
+        {
+            forward = true;
+            outlineChanged();
+        }
     }
 
     /**
@@ -129,7 +170,11 @@ public class Ship extends Participant implements AsteroidDestroyer
      */
     public void stop ()
     {
-        forward = false;
+        if (forward)
+        {
+            forward = false;
+            outlineChanged();
+        }
     }
 
     /**
@@ -139,7 +184,8 @@ public class Ship extends Participant implements AsteroidDestroyer
     {
         if (!controller.hasMaxBullets())
         {
-            controller.addParticipant(new Bullets(this.getXNose(), this.getYNose(), this.getRotation()));
+            Point2D.Double point = locateNose();
+            controller.addParticipant(Bullets.create(controller, point.getX(), point.getY(), this.getRotation()));
             controller.playSound("/sounds/fire.wav");
         }
     }
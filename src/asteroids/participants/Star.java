@@ -2,32 +2,62 @@ package asteroids.participants;
 
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
-import java.util.Random;
-import asteroids.game.Constants;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
 public class Star extends Participant
 {
-    private Shape outline;
+    /** The outline shared by every star, a single pixel */
+    private final static Shape OUTLINE = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
+
+    /** The collision shape of the outline */
+    private final static CollisionShape SHAPE = CollisionShape.create(OUTLINE);
 
     /*
-     * Creates new piece of debris at x and y moving in direction that disappears at the end of the timer.
+     * Creates new star at x and y drifting down the screen.
      */
-    public Star ()
+    public Star (double x, double y)
     {
-        Random rng = new Random();
-        int x = rng.nextInt(Constants.SIZE);
-        int y = rng.nextInt(Constants.SIZE);
         this.setPosition(x, y);
         this.setVelocity(3.0, 0.5 * Math.PI);
-        this.outline = new Ellipse2D.Double(0.0, 0.0, 1.0, 1.0);
     }
 
     @Override
     protected Shape getOutline ()
     {
-        return outline;
+        return OUTLINE;
+    }
+
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return SHAPE;
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.STAR;
+    }
+
+    /**
+     * Stars react to nothing
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.NONE;
+    }
+
+    /**
+     * The outline is a single pixel, so collisions treat it as a point
+     */
+    @Override
+    protected boolean isPointLike ()
+    {
+        return true;
     }
 
     /*
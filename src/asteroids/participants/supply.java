@@ -1,30 +1,72 @@
 package asteroids.participants;
 
-import static asteroids.game.Constants.RANDOM;
 import java.awt.Shape;
 import java.awt.geom.Path2D;
-import asteroids.game.Controller;
+import java.util.SplittableRandom;
+import asteroids.game.CollisionLayer;
+import asteroids.game.CollisionShape;
+import asteroids.game.GameSession;
 import asteroids.game.Participant;
 import asteroids.game.ParticipantCountdownTimer;
 
 public class supply extends Participant
 {
     /** The game controller */
-    private Controller controller;
+    private GameSession controller;
 
-    /** The outline of the asteroid */
-    private Shape outline;
+    /** The number of varieties of supply */
+    private final static int VARIETIES = 3;
+
+    /** The outline of each variety, shared by every supply of that variety */
+    private final static Shape[] OUTLINES = new Shape[VARIETIES];
+
+    /** The collision shape of each outline */
+    private final static CollisionShape[] SHAPES = new CollisionShape[VARIETIES];
+
+    static
+    {
+        for (int variety = 0; variety < VARIETIES; variety++)
+        {
+            OUTLINES[variety] = createSupplyLootOutline(variety);
+            SHAPES[variety] = CollisionShape.create(OUTLINES[variety]);
+        }
+    }
 
     private int variety;
 
-    public supply (int variety, double x, double y, Controller controller)
+    public supply (int variety, double x, double y, GameSession controller)
+    {
+        init(variety, x, y, controller);
+    }
+
+    /**
+     * Creates a supply for a pool, which initializes it when it is handed out.
+     */
+    supply ()
+    {
+    }
+
+    /**
+     * Returns a supply of the given variety from the controller's pool, at x and y.
+     */
+    public static supply create (int variety, double x, double y, GameSession controller)
+    {
+        supply loot = controller.getPools().supplies.obtain();
+        loot.init(variety, x, y, controller);
+        return loot;
+    }
+
+    /**
+     * Puts the supply at x and y moving in a random direction and starts its timer.
+     */
+    private void init (int variety, double x, double y, GameSession controller)
     {
         // Create the supply loot
         this.controller = controller;
         setPosition(x, y);
-        setVelocity(5, RANDOM.nextDouble() * 2 * Math.PI);
-        setRotation(2 * Math.PI * RANDOM.nextDouble());
-        createSupplyLootOutline(variety);
+        SplittableRandom random = controller.getRandom().effects;
+        setVelocity(5, random.nextDouble() * 2 * Math.PI);
+        setRotation(2 * Math.PI * random.nextDouble());
         this.variety = variety;
         new ParticipantCountdownTimer(this, "expire", 8000);
     }
@@ -32,7 +74,28 @@ public class supply extends Participant
     @Override
     protected Shape getOutline ()
     {
-        return outline;
+        return OUTLINES[variety];
+    }
+
+    @Override
+    protected CollisionShape getCollisionShape (Shape outline)
+    {
+        return SHAPES[variety];
+    }
+
+    @Override
+    protected int getCollisionLayer ()
+    {
+        return CollisionLayer.SUPPLY;
+    }
+
+    /**
+     * Supplies react only to ships
+     */
+    @Override
+    protected int getCollisionMask ()
+    {
+        return CollisionLayer.SHIP;
     }
 
     @Override
@@ -47,7 +110,7 @@ public class supply extends Participant
 
     }
 
-    private void createSupplyLootOutline (int variety)
+    private static Shape createSupplyLootOutline (int variety)
     {
         // This will contain the outline
         Path2D.Double poly = new Path2D.Double();
@@ -77,8 +140,7 @@ public class supply extends Participant
             poly.closePath();
         }
 
-        // Save the outline
-        outline = poly;
+        return poly;
     }
     
     @Override